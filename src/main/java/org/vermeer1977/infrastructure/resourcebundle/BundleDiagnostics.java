@@ -0,0 +1,222 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import lombok.Value;
+
+/**
+ * CustomControlで読み込んだResourceBundleのメモリ使用量を推計するクラス.<br>
+ * CustomControlに指定すると、読み込んだResourceBundleをbaseName・ロケール・フォーマット毎に記録する.<br>
+ * 記録はResourceBundleを弱参照で保持するので、キャッシュから破棄されたResourceBundleは推計の対象外となる.<br>
+ * <br>
+ * 実装例
+ * <pre>
+ * {@code
+ * BundleDiagnostics diagnostics = new BundleDiagnostics();
+ * CustomControl control = CustomControl.builder().diagnostics(diagnostics).build();
+ * diagnostics.registerMBean("messages");
+ * ...
+ * System.out.println(diagnostics.report().sorted(FootprintReport.BY_ESTIMATED_BYTES));
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleDiagnostics implements BundleDiagnosticsMXBean {
+
+    /* Stringオブジェクト（ヘッダ・配列参照・ハッシュ値） */
+    private static final long STRING_BYTES = 24L;
+
+    /* 配列オブジェクトのヘッダ */
+    private static final long ARRAY_HEADER_BYTES = 16L;
+
+    /* HashMapのエントリ（ヘッダ・ハッシュ値・キー・値・次エントリ） */
+    private static final long ENTRY_BYTES = 32L;
+
+    /* HashMap自身とResourceBundle自身 */
+    private static final long CONTAINER_BYTES = 48L + 48L;
+
+    private static final long REFERENCE_BYTES = 4L;
+
+    /* Java9以降はLatin-1の文字列を1文字1バイトで保持する */
+    private static final boolean COMPACT_STRINGS = System.getProperty("java.specification.version", "1.8").startsWith("1.") == false;
+
+    private final ConcurrentMap<LoadedBundleKey, LoadedBundle> loadedBundles = new ConcurrentHashMap<>();
+
+    /**
+     * 読み込んだResourceBundleを記録する.<br>
+     * 親リソースが設定される前（newBundleの直後）に呼び出すことで、ResourceBundle自身が保持するキーを記録する.
+     *
+     * @param key 読み込んだResourceBundleのbaseName・ロケール・フォーマット・ClassLoader
+     * @param bundle 読み込んだResourceBundle
+     */
+    void loaded(LoadedBundleKey key, ResourceBundle bundle) {
+        Set<String> keys = bundle.keySet();
+        this.loadedBundles.put(key, new LoadedBundle(new WeakReference<>(bundle), keys.toArray(new String[keys.size()])));
+    }
+
+    /**
+     * 記録しているResourceBundleのメモリ使用量を推計する.
+     *
+     * @return 推計結果の一覧（baseName・ロケール・フォーマットの昇順）
+     */
+    public FootprintReport report() {
+        // ClassLoaderが異なるResourceBundleの間では重複を数えない
+        Map<ClassLoader, Map<String, List<Map.Entry<LoadedBundleKey, ResourceBundle>>>> byLoader = new IdentityHashMap<>();
+        Map<LoadedBundleKey, String[]> ownKeys = new HashMap<>();
+        for (Iterator<Map.Entry<LoadedBundleKey, LoadedBundle>> it = this.loadedBundles.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<LoadedBundleKey, LoadedBundle> entry = it.next();
+            ResourceBundle bundle = entry.getValue().getBundle().get();
+            if (bundle == null || entry.getKey().isLoaderCollected()) {
+                it.remove();
+                continue;
+            }
+            byLoader.computeIfAbsent(entry.getKey().getLoader(), loader -> new HashMap<>())
+                    .computeIfAbsent(entry.getKey().getBaseName(), baseName -> new ArrayList<>())
+                    .add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), bundle));
+            ownKeys.put(entry.getKey(), entry.getValue().getKeys());
+        }
+
+        List<BundleFootprint> footprints = new ArrayList<>();
+        byLoader.values().forEach(byBaseName -> byBaseName.values().forEach(bundles -> {
+            // ロケールの文字列の昇順（親ロケールが子ロケールより先）に並べ、先に並んだロケールを正として後続の重複を数える
+            bundles.sort((a, b) -> a.getKey().getLocale().toString().compareTo(b.getKey().getLocale().toString()));
+            Set<String> seenKeys = new HashSet<>();
+            Map<String, Object> seenValues = new HashMap<>();
+            bundles.forEach(entry -> footprints.add(
+                    estimate(entry.getKey(), entry.getValue(), ownKeys.get(entry.getKey()), seenKeys, seenValues)));
+        }));
+        return new FootprintReport(footprints).sorted(FootprintReport.BY_NAME);
+    }
+
+    /**
+     * 記録を破棄する.
+     */
+    public void clear() {
+        this.loadedBundles.clear();
+    }
+
+    /**
+     * プラットフォームのMBeanServerへ登録する.<br>
+     * ObjectNameは{@code org.vermeer1977.infrastructure.resourcebundle:type=BundleDiagnostics,name=<name>}とする.
+     *
+     * @param name 登録する名前
+     * @return 登録したObjectName
+     */
+    public ObjectName registerMBean(String name) {
+        try {
+            ObjectName objectName = new ObjectName(BundleDiagnostics.class.getPackage().getName()
+                                                   + ":type=BundleDiagnostics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        }
+        catch (JMException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public List<BundleFootprint> getFootprints() {
+        return this.report().sorted(FootprintReport.BY_ESTIMATED_BYTES).getFootprints();
+    }
+
+    @Override
+    public long getTotalEstimatedBytes() {
+        return this.report().getTotalEstimatedBytes();
+    }
+
+    @Override
+    public long getTotalDuplicatedBytes() {
+        return this.report().getTotalDuplicatedBytes();
+    }
+
+    private static BundleFootprint estimate(LoadedBundleKey key, ResourceBundle bundle, String[] keys,
+                                            Set<String> seenKeys, Map<String, Object> seenValues) {
+        long keyChars = 0;
+        long valueChars = 0;
+        long keyBytes = 0;
+        long valueBytes = 0;
+        long duplicatedBytes = 0;
+        for (String ownKey : keys) {
+            // 親リソースが設定されていても、自身が保持するキーは自身の値が優先される
+            Object value = BundleUsageTracker.peek(bundle, ownKey);
+            long ownKeyBytes = stringBytes(ownKey);
+            keyChars += ownKey.length();
+            keyBytes += ownKeyBytes;
+            if (seenKeys.add(ownKey) == false) {
+                duplicatedBytes += ownKeyBytes;
+            }
+            if (value instanceof String) {
+                String text = (String) value;
+                long ownValueBytes = stringBytes(text);
+                valueChars += text.length();
+                valueBytes += ownValueBytes;
+                if (text.equals(seenValues.get(ownKey))) {
+                    duplicatedBytes += ownValueBytes;
+                }
+            }
+            seenValues.putIfAbsent(ownKey, value);
+        }
+        long mapOverheadBytes = CONTAINER_BYTES
+                                + align(ARRAY_HEADER_BYTES + REFERENCE_BYTES * tableCapacity(keys.length))
+                                + ENTRY_BYTES * keys.length;
+        return new BundleFootprint(key.getBaseName(), key.getLocale().toString(), key.getFormat(),
+                                   keys.length, keyChars, valueChars, keyBytes, valueBytes, mapOverheadBytes,
+                                   duplicatedBytes, keyBytes + valueBytes + mapOverheadBytes);
+    }
+
+    private static long stringBytes(String text) {
+        boolean latin1 = COMPACT_STRINGS && text.chars().allMatch(c -> c <= 0xFF);
+        return STRING_BYTES + align(ARRAY_HEADER_BYTES + (latin1 ? 1L : 2L) * text.length());
+    }
+
+    private static long tableCapacity(int size) {
+        long capacity = 16;
+        while (capacity * 3 / 4 < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    @Value
+    private static class LoadedBundle {
+
+        private final WeakReference<ResourceBundle> bundle;
+
+        private final String[] keys;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.List;
+
+/**
+ * BundleDiagnosticsをJMXで参照するためのインターフェース.
+ *
+ * @author Yamashita,Takahiro
+ */
+public interface BundleDiagnosticsMXBean {
+
+    /**
+     * 読み込んだResourceBundleのメモリ使用量の推計を、推計バイト数の降順で返却する.
+     *
+     * @return BundleFootprintの一覧
+     */
+    List<BundleFootprint> getFootprints();
+
+    /**
+     * 全ResourceBundleの推計バイト数の合計を返却する.
+     *
+     * @return 推計バイト数の合計
+     */
+    long getTotalEstimatedBytes();
+
+    /**
+     * 全ResourceBundleの重複しているバイト数の合計を返却する.
+     *
+     * @return 重複しているバイト数の合計
+     */
+    long getTotalDuplicatedBytes();
+}
@@ -0,0 +1,277 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 親リソースまで解決済みのResourceBundleをエクスポートした結果.<br>
+ * キーを昇順に並べた索引と、JSON形式・properties形式でエンコード済みの内容を保持する.<br>
+ * キーの接頭辞による絞り込み結果は索引の二分探索で求め、一度求めた結果は保持して再利用する.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleExport {
+
+    /**
+     * JSON形式のContent-Type
+     */
+    public static final String CONTENT_TYPE_JSON = "application/json; charset=UTF-8";
+
+    /**
+     * properties形式のContent-Type
+     */
+    public static final String CONTENT_TYPE_PROPERTIES = "text/plain; charset=UTF-8";
+
+    /* 接頭辞による絞り込み結果を保持する上限（クライアント指定の接頭辞で際限なく増えないようにする） */
+    private static final int MAX_CACHED_PREFIXES = 256;
+
+    private final ResourceBundle source;
+
+    private final String[] keys;
+
+    private final String[] values;
+
+    private final ExportedContent json;
+
+    private final ExportedContent properties;
+
+    private final Map<String, BundleExport> prefixExports = new ConcurrentHashMap<>();
+
+    private BundleExport(ResourceBundle source, String[] keys, String[] values) {
+        this.source = source;
+        this.keys = keys;
+        this.values = values;
+        this.json = new ExportedContent(ExportedContent.utf8(toJson(keys, values)), CONTENT_TYPE_JSON);
+        this.properties = new ExportedContent(ExportedContent.utf8(toProperties(keys, values)), CONTENT_TYPE_PROPERTIES);
+    }
+
+    /**
+     * ResourceBundleをエクスポートする.<br>
+     * 親リソースを含めた全キーの値を解決する.値が文字列ではないキー（classフォーマットのオブジェクト等）は対象外とする.
+     *
+     * @param bundle エクスポート対象のResourceBundle
+     * @return エクスポート結果
+     */
+    public static BundleExport of(ResourceBundle bundle) {
+        List<String> sortedKeys = new ArrayList<>(bundle.keySet());
+        Collections.sort(sortedKeys);
+        List<String> exportKeys = new ArrayList<>(sortedKeys.size());
+        List<String> exportValues = new ArrayList<>(sortedKeys.size());
+        for (String key : sortedKeys) {
+            Object value = BundleUsageTracker.peek(bundle, key);
+            if (value instanceof String) {
+                exportKeys.add(key);
+                exportValues.add((String) value);
+            }
+        }
+        return new BundleExport(bundle,
+                                exportKeys.toArray(new String[exportKeys.size()]),
+                                exportValues.toArray(new String[exportValues.size()]));
+    }
+
+    /**
+     * エクスポート元のResourceBundleと同一インスタンスであるか判定する.<br>
+     * ResourceBundleはリロードされると別インスタンスになるので、同一であればエクスポート結果を再利用できる.
+     *
+     * @param bundle 判定対象のResourceBundle
+     * @return 同一インスタンスの場合はtrue
+     */
+    boolean isExportOf(ResourceBundle bundle) {
+        return this.source == bundle;
+    }
+
+    /**
+     * JSON形式（キーの昇順で並べたフラットなオブジェクト）の内容を返却する.
+     *
+     * @return JSON形式の内容
+     */
+    public ExportedContent getJson() {
+        return this.json;
+    }
+
+    /**
+     * properties形式（UTF-8）の内容を返却する.
+     *
+     * @return properties形式の内容
+     */
+    public ExportedContent getProperties() {
+        return this.properties;
+    }
+
+    /**
+     * エクスポート対象のキーを昇順で返却する.
+     *
+     * @return 昇順のキーリスト
+     */
+    public List<String> getKeys() {
+        return Collections.unmodifiableList(Arrays.asList(this.keys));
+    }
+
+    /**
+     * キーの接頭辞で絞り込んだエクスポート結果を返却する.
+     *
+     * @param prefix キーの接頭辞
+     * @return 絞り込んだエクスポート結果
+     */
+    public BundleExport filter(String prefix) {
+        if (prefix == null) {
+            throw new NullPointerException();
+        }
+        if (prefix.isEmpty()) {
+            return this;
+        }
+        BundleExport cached = this.prefixExports.get(prefix);
+        if (cached != null) {
+            return cached;
+        }
+        BundleExport filtered = this.createFiltered(prefix);
+        if (this.prefixExports.size() >= MAX_CACHED_PREFIXES) {
+            return filtered;
+        }
+        BundleExport previous = this.prefixExports.putIfAbsent(prefix, filtered);
+        return previous == null ? filtered : previous;
+    }
+
+    private BundleExport createFiltered(String prefix) {
+        int from = Arrays.binarySearch(this.keys, prefix);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        int to = from;
+        while (to < this.keys.length && this.keys[to].startsWith(prefix)) {
+            to++;
+        }
+        return new BundleExport(this.source,
+                                Arrays.copyOfRange(this.keys, from, to),
+                                Arrays.copyOfRange(this.values, from, to));
+    }
+
+    private static String toJson(String[] keys, String[] values) {
+        StringBuilder sb = new StringBuilder();
+        sb.append('{');
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendJsonString(sb, keys[i]);
+            sb.append(':');
+            appendJsonString(sb, values[i]);
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static void appendJsonString(StringBuilder sb, String text) {
+        sb.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    // U+2028,U+2029はJavaScriptの文字列リテラル内で改行扱いとなるためエスケープする
+                    if (c < 0x20 || c == '\u2028' || c == '\u2029') {
+                        appendUnicodeEscape(sb, c);
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static String toProperties(String[] keys, String[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            appendPropertiesText(sb, keys[i], true);
+            sb.append('=');
+            appendPropertiesText(sb, values[i], false);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * {@link java.util.Properties#store(java.io.Writer, java.lang.String)}と同じ規則でエスケープする.<br>
+     * UTF-8で出力するので、非ASCII文字はエスケープしない.
+     */
+    private static void appendPropertiesText(StringBuilder sb, String text, boolean isKey) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case ' ':
+                    if (i == 0 || isKey) {
+                        sb.append('\\');
+                    }
+                    sb.append(' ');
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\f':
+                    sb.append("\\f");
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                case '\\':
+                    sb.append('\\').append(c);
+                    break;
+                default:
+                    if (c < 0x20 || c == 0x7F) {
+                        appendUnicodeEscape(sb, c);
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+    }
+
+    private static void appendUnicodeEscape(StringBuilder sb, char c) {
+        sb.append("\\u");
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            sb.append(Character.forDigit((c >> shift) & 0xF, 16));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.Builder;
+
+/**
+ * CustomControlで取得したResourceBundleを、フロントエンドへ配信するためにエクスポートするクラス.<br>
+ * エクスポート結果はbaseNameとlocaleの組み合わせ毎に保持し、ResourceBundleがリロードされた場合のみ作り直す.<br>
+ * <br>
+ * 実装例
+ * <pre>
+ * {@code
+ * BundleExporter exporter = BundleExporter.builder()
+ *  .control(CustomControl.builder().charCode("UTF-8").build())
+ *  .build();
+ *
+ * ExportedContent content = exporter.export("resourcebundle.test.utf8", Locale.JAPAN).getJson();
+ * if (content.getETag().equals(ifNoneMatch) == false) {
+ *     channel.write(content.getBuffer());
+ * }
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+@Builder
+public class BundleExporter {
+
+    private final CustomControl control;
+
+    private final ConcurrentMap<BundleKey, BundleExport> exports = new ConcurrentHashMap<>();
+
+    /**
+     * baseNameとlocaleで解決したResourceBundleのエクスポート結果を返却する.<br>
+     * ResourceBundleが前回のエクスポート時と同一インスタンス（リロードされていない）の場合は、保持しているエクスポート結果をそのまま返却する.
+     *
+     * @param baseName リソースのbaseName
+     * @param locale ロケール
+     * @return エクスポート結果
+     */
+    public BundleExport export(String baseName, Locale locale) {
+        ResourceBundle bundle = this.control == null
+                                ? ResourceBundle.getBundle(baseName, locale)
+                                : ResourceBundle.getBundle(baseName, locale, this.control);
+        BundleKey key = new BundleKey(baseName, locale);
+        BundleExport current = this.exports.get(key);
+        if (current != null && current.isExportOf(bundle)) {
+            return current;
+        }
+        BundleExport created = BundleExport.of(bundle);
+        this.exports.put(key, created);
+        return created;
+    }
+
+    /**
+     * 保持しているエクスポート結果を破棄する.
+     */
+    public void clear() {
+        this.exports.clear();
+    }
+}
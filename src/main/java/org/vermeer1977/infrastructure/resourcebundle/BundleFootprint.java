@@ -0,0 +1,60 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 読み込んだResourceBundle（baseName・ロケール・フォーマット毎）のメモリ使用量の推計.<br>
+ * 親リソースから参照する値は含めず、ResourceBundle自身が保持するキーと値のみを対象とする.<br>
+ * バイト数は64bit JVM（圧縮参照あり）を前提とした推計値であり、実測値ではない.
+ *
+ * @author Yamashita,Takahiro
+ */
+@AllArgsConstructor @Getter
+public class BundleFootprint {
+
+    private final String baseName;
+
+    /* JMXで参照できるようにLocale#toString()の形式で保持する */
+    private final String locale;
+
+    private final String format;
+
+    private final int keyCount;
+
+    private final long keyChars;
+
+    private final long valueChars;
+
+    /* キー文字列（Stringオブジェクトと文字配列）の推計バイト数 */
+    private final long keyBytes;
+
+    /* 値の文字列（Stringオブジェクトと文字配列）の推計バイト数 */
+    private final long valueBytes;
+
+    /* Mapのテーブルとエントリ、ResourceBundle自身の推計バイト数 */
+    private final long mapOverheadBytes;
+
+    /* 同じbaseNameの他のロケールと重複しているキー・値の推計バイト数（文字列を共有すれば削減できる量） */
+    private final long duplicatedBytes;
+
+    /* 保持している推計バイト数の合計（keyBytes + valueBytes + mapOverheadBytes） */
+    private final long estimatedBytes;
+
+}
@@ -0,0 +1,91 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.ResourceBundle;
+import java.util.Set;
+import lombok.Getter;
+
+/**
+ * ResourceBundleの再ロードで追加・変更・削除されたキー.<br>
+ * 対象は再ロードしたResourceBundle自身が保持するキーであり、親リソースのキーは含まない.
+ *
+ * @author Yamashita,Takahiro
+ */
+@Getter
+public class BundleReloadEvent {
+
+    private final String baseName;
+
+    private final Locale locale;
+
+    private final String format;
+
+    private final Set<String> addedKeys;
+
+    private final Set<String> changedKeys;
+
+    private final Set<String> removedKeys;
+
+    BundleReloadEvent(String baseName, Locale locale, String format,
+                      Set<String> addedKeys, Set<String> changedKeys, Set<String> removedKeys) {
+        this.baseName = baseName;
+        this.locale = locale;
+        this.format = format;
+        this.addedKeys = Collections.unmodifiableSet(addedKeys);
+        this.changedKeys = Collections.unmodifiableSet(changedKeys);
+        this.removedKeys = Collections.unmodifiableSet(removedKeys);
+    }
+
+    /**
+     * 再ロード前後のResourceBundleを比較する.
+     *
+     * @param key 再ロードしたResourceBundleのbaseName・ロケール・フォーマット
+     * @param oldBundle 再ロード前のResourceBundle
+     * @param oldKeys 再ロード前のResourceBundle自身が保持していたキー
+     * @param newBundle 再ロードしたResourceBundle（親リソース設定前）. リソースが削除された場合はnull
+     * @return 比較結果
+     */
+    static BundleReloadEvent of(LoadedBundleKey key, ResourceBundle oldBundle, Set<String> oldKeys, ResourceBundle newBundle) {
+        Set<String> newKeys = newBundle == null ? Collections.<String>emptySet() : newBundle.keySet();
+        Set<String> added = new HashSet<>(newKeys);
+        added.removeAll(oldKeys);
+        Set<String> removed = new HashSet<>(oldKeys);
+        removed.removeAll(newKeys);
+        Set<String> changed = new HashSet<>();
+        for (String newKey : newKeys) {
+            // 再ロード前のResourceBundle自身が保持していたキーは、親リソースより自身の値が優先される
+            if (oldKeys.contains(newKey) && Objects.equals(BundleUsageTracker.peek(oldBundle, newKey), BundleUsageTracker.peek(newBundle, newKey)) == false) {
+                changed.add(newKey);
+            }
+        }
+        return new BundleReloadEvent(key.getBaseName(), key.getLocale(), key.getFormat(), added, changed, removed);
+    }
+
+    /**
+     * 追加・変更・削除されたキーが無いか判定する.
+     *
+     * @return 変更が無い場合はtrue
+     */
+    public boolean isEmpty() {
+        return this.addedKeys.isEmpty() && this.changedKeys.isEmpty() && this.removedKeys.isEmpty();
+    }
+}
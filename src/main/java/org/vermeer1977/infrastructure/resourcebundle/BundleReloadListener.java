@@ -0,0 +1,42 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+/**
+ * CustomControlがResourceBundleを再ロードした際に通知を受けるリスナー.<br>
+ * 通知はCustomControlで指定したExecutorで非同期に行う.キーに変更が無い場合は通知しない.
+ * <pre>
+ * {@code
+ * CustomControl control = CustomControl.builder()
+ *  .timeToLive(60000L)
+ *  .reloadListener(event -> event.getChangedKeys().forEach(templateCache::invalidate))
+ *  .build();
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+@FunctionalInterface
+public interface BundleReloadListener {
+
+    /**
+     * ResourceBundleが再ロードされた.
+     *
+     * @param event 再ロードされたResourceBundleと変更されたキー
+     */
+    void reloaded(BundleReloadEvent event);
+}
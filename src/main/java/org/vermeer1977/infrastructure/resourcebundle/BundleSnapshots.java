@@ -0,0 +1,267 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import lombok.Value;
+
+/**
+ * 解析済みのリソースを保存したスナップショットファイルの読み書き.<br>
+ * スナップショットファイルはリソースのURL・フォーマット・文字コード毎に作成し、
+ * 先頭に記録したサイズ・更新日時（更新日時が取得できないリソースは内容のチェックサム）がリソースと一致する場合のみ使用する.<br>
+ * スナップショットはあくまでキャッシュなので、読み書きで発生した例外は呼び出し元へ伝播させず、通常の解析処理へ切り替えられるようにする.<br>
+ * 文字列はバイト長を先頭に付けた修正UTF-8（{@link java.io.DataOutput#writeUTF(java.lang.String)}と同じ符号化で、長さを4バイトとしたもの）で保存する.
+ * サロゲートは1文字ずつ符号化するので、単独のサロゲート（propertiesのUnicodeエスケープで記述した場合等）も解析した場合と同じ値に復元できる.<br>
+ * 読み込み時はファイル全体を一度に読み込み、文字列はバイト配列からまとめて復元する.
+ *
+ * @author Yamashita,Takahiro
+ */
+class BundleSnapshots {
+
+    /* スナップショットファイルの識別子 "RBS1" */
+    private static final int MAGIC = 0x52425331;
+
+    private static final int VERSION = 3;
+
+    private static final String SUFFIX = ".snapshot";
+
+    private BundleSnapshots() {
+    }
+
+    /**
+     * スナップショットを読み込む.<br>
+     * 復元したMapは呼び出し元で複製せずにそのまま保持できるよう、他からは参照しない新しいインスタンスを返却する.
+     *
+     * @param directory スナップショットの格納ディレクトリ
+     * @param key スナップショットのキー
+     * @return キーが一致した場合は保存したキーと値、スナップショットが存在しないか一致しない場合はnull
+     */
+    static HashMap<String, Object> read(Path directory, SnapshotKey key) {
+        Path file = directory.resolve(key.fileName());
+        try {
+            byte[] data = Files.readAllBytes(file);
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                return null;
+            }
+            SnapshotKey stored = new SnapshotKey(readString(buffer), readString(buffer), readString(buffer),
+                                                 buffer.getLong(), buffer.getLong(), buffer.getLong());
+            if (stored.equals(key) == false) {
+                return null;
+            }
+            int size = buffer.getInt();
+            // 1エントリはキーと値の長さ（4バイト×2）以上となる
+            if (size < 0 || size > buffer.remaining() / 8) {
+                return null;
+            }
+            HashMap<String, Object> entries = new HashMap<>(size * 4 / 3 + 1);
+            for (int i = 0; i < size; i++) {
+                entries.put(readString(buffer), readString(buffer));
+            }
+            return entries;
+        }
+        catch (NoSuchFileException ex) {
+            return null;
+        }
+        catch (IOException | RuntimeException ex) {
+            // 破損したスナップショットは使用しない
+            return null;
+        }
+    }
+
+    /**
+     * スナップショットを書き込む.<br>
+     * 一時ファイルに書き込んでから置き換えるので、並行して読み込まれても書き込み途中の内容を参照することはない.
+     *
+     * @param directory スナップショットの格納ディレクトリ
+     * @param key スナップショットのキー
+     * @param entries 解析済みのキーと値
+     */
+    static void write(Path directory, SnapshotKey key, Map<String, String> entries) {
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "bundle", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, key.getUrl());
+                writeString(out, key.getFormat());
+                writeString(out, key.getCharCode());
+                out.writeLong(key.getSize());
+                out.writeLong(key.getLastModified());
+                out.writeLong(key.getChecksum());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, String> entry : entries.entrySet()) {
+                    writeString(out, entry.getKey());
+                    writeString(out, entry.getValue());
+                }
+            }
+            Path file = directory.resolve(key.fileName());
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            temp = null;
+        }
+        catch (IOException ex) {
+            // スナップショットが作成できなくても、解析済みのResourceBundleはそのまま使用できる
+        }
+        finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * 更新日時が取得できないリソースの変更を判定するためのチェックサム.
+     *
+     * @param content リソースの内容
+     * @return CRC32の値
+     */
+    static long checksum(byte[] content) {
+        CRC32 crc = new CRC32();
+        crc.update(content, 0, content.length);
+        return crc.getValue();
+    }
+
+    private static void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        }
+        catch (IOException ex) {
+            // 削除できなかった一時ファイルは次回以降も参照されないので無視する
+        }
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        // 破損した長さで巨大な配列を確保しないよう、残りのバイト数を上限とする
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("broken snapshot");
+        }
+        int offset = buffer.position();
+        buffer.position(offset + length);
+        return decode(buffer.array(), offset, length);
+    }
+
+    private static String decode(byte[] data, int offset, int length) throws IOException {
+        int end = offset + length;
+        int index = offset;
+        while (index < end && data[index] >= 0) {
+            index++;
+        }
+        if (index == end) {
+            // ASCIIのみの場合は1バイト1文字なので、まとめて変換する
+            return new String(data, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        char[] chars = new char[length];
+        int count = 0;
+        for (int i = offset; i < index; i++) {
+            chars[count++] = (char) data[i];
+        }
+        while (index < end) {
+            int first = data[index++] & 0xFF;
+            if (first < 0x80) {
+                chars[count++] = (char) first;
+            } else if ((first & 0xE0) == 0xC0 && index < end) {
+                chars[count++] = (char) (((first & 0x1F) << 6) | continuation(data[index++]));
+            } else if ((first & 0xF0) == 0xE0 && index + 1 < end) {
+                int second = continuation(data[index++]);
+                chars[count++] = (char) (((first & 0x0F) << 12) | (second << 6) | continuation(data[index++]));
+            } else {
+                throw new IOException("broken snapshot");
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    private static int continuation(byte value) throws IOException {
+        if ((value & 0xC0) != 0x80) {
+            throw new IOException("broken snapshot");
+        }
+        return value & 0x3F;
+    }
+
+    private static void writeString(DataOutputStream out, String text) throws IOException {
+        int length = text.length();
+        int encodedLength = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            encodedLength += c >= 0x0001 && c <= 0x007F ? 1 : c <= 0x07FF ? 2 : 3;
+        }
+        byte[] bytes = new byte[encodedLength];
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                bytes[count++] = (byte) c;
+            } else if (c <= 0x07FF) {
+                // NUL文字も2バイトで符号化する
+                bytes[count++] = (byte) (0xC0 | (c >> 6));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            } else {
+                bytes[count++] = (byte) (0xE0 | (c >> 12));
+                bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                bytes[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        out.writeInt(encodedLength);
+        out.write(bytes);
+    }
+
+    /**
+     * スナップショットのキー.<br>
+     * リソースのURL・フォーマット・文字コードでファイルを特定し、サイズ・更新日時で内容が変わっていないことを確認する.<br>
+     * 更新日時が取得できないリソースは、内容のチェックサムで確認する（更新日時が取得できる場合のチェックサムは0）.
+     */
+    @Value
+    static class SnapshotKey {
+
+        private final String url;
+
+        private final String format;
+
+        private final String charCode;
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final long checksum;
+
+        String fileName() {
+            return Digests.sha256Hex(this.url + "\n" + this.format + "\n" + this.charCode) + SUFFIX;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * CustomControlがproperties・XMLのリソースを取得する取得元.<br>
+ * 指定したbaseNameの全ロケールのリソースを一度に取得し、CustomControlは取得した結果から候補ロケール順にResourceBundleを生成する.<br>
+ * ロケール×フォーマット毎にクラスローダーへ問い合わせる代わりに、外部ディレクトリ・zipアーカイブ・キーバリューストア等から一括で取得できる.<br>
+ * <br>
+ * 実装例
+ * <pre>
+ * {@code
+ * CustomControl control = CustomControl.builder()
+ *  .charCode("UTF-8")
+ *  .source(new DirectoryBundleSource(Paths.get("/etc/app/messages")))
+ *  .build();
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+public interface BundleSource {
+
+    /**
+     * baseNameに該当する全ロケールのリソースを取得する.<br>
+     * 戻り値のキーは{@link java.util.ResourceBundle.Control#toResourceName(java.lang.String, java.lang.String)}と同じ形式のリソース名
+     * （例：baseNameが{@code resourcebundle.test.utf8}の場合、{@code resourcebundle/test/utf8_ja_JP.properties}）とする.
+     *
+     * @param baseName リソースのbaseName
+     * @param suffix リソースの拡張子（properties または xml）
+     * @return リソース名とリソースの内容. 該当するリソースが無い場合は空のMap
+     * @throws IOException リソースの取得時に発生した例外
+     */
+    Map<String, byte[]> fetchAll(String baseName, String suffix) throws IOException;
+
+    /**
+     * リソース名が、baseNameのいずれかのロケールのリソースに該当するか判定する.
+     *
+     * @param resourceName リソース名
+     * @param baseName リソースのbaseName
+     * @param suffix リソースの拡張子
+     * @return 該当する場合はtrue
+     */
+    static boolean isVariantOf(String resourceName, String baseName, String suffix) {
+        String prefix = baseName.replace('.', '/');
+        String extension = "." + suffix;
+        if (resourceName.startsWith(prefix) == false || resourceName.endsWith(extension) == false) {
+            return false;
+        }
+        String rest = resourceName.substring(prefix.length(), resourceName.length() - extension.length());
+        return rest.isEmpty() || (rest.startsWith("_") && rest.indexOf('/') < 0);
+    }
+}
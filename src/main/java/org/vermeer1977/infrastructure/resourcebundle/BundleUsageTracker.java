@@ -0,0 +1,424 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.ListResourceBundle;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CustomControlで読み込んだResourceBundleのキー毎の参照回数を集計するクラス.<br>
+ * CustomControlに指定すると、読み込んだResourceBundleを参照回数を数えるResourceBundleに置き換える.<br>
+ * 参照回数は{@link java.util.concurrent.atomic.LongAdder}で数えるので、複数スレッドから参照しても競合しにくい.
+ * さらに参照の負荷を下げる場合は、sampleRateを指定して一部の参照のみを数える（集計結果は推計値となる）.<br>
+ * 集計結果は再ロード後も引き継ぐ.<br>
+ * エクスポート・再ロードの比較・診断など、このパッケージの機能による読み込みは参照回数に数えない.<br>
+ * 対象はproperties・xml・{@link java.util.ListResourceBundle}・{@link MapResourceBundle}とし、
+ * 値を動的に返却する可能性があるその他のResourceBundleクラスは置き換えない.<br>
+ * <br>
+ * 実装例
+ * <pre>
+ * {@code
+ * BundleUsageTracker tracker = new BundleUsageTracker();
+ * CustomControl control = CustomControl.builder().usageTracker(tracker).build();
+ * ...
+ * tracker.getHotKeys(20).forEach(System.out::println);
+ * tracker.getUnusedKeys().forEach(System.out::println);
+ * try (Writer writer = Files.newBufferedWriter(Paths.get("usage.tsv"))) {
+ *     tracker.export(writer);
+ * }
+ *
+ * // 次回起動時に参照されたResourceBundleを事前に読み込む
+ * try (Reader reader = Files.newBufferedReader(Paths.get("usage.tsv"))) {
+ *     BundleUsageTracker.read(reader).forEach(usage -> ResourceBundle.getBundle(usage.getBaseName(), usage.getLocale(), control));
+ * }
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleUsageTracker {
+
+    /* ミスしたキーを個別に数える上限（存在しないキーの参照で際限なく増えないようにする） */
+    private static final int MAX_MISSED_KEYS = 4096;
+
+    private static final String EXPORT_HEADER = "# baseName\tlocale\tkey\tcount";
+
+    private static final Comparator<KeyUsage> BY_NAME = Comparator.comparing(KeyUsage::getBaseName)
+            .thenComparing(usage -> usage.getLocale().toString())
+            .thenComparing(KeyUsage::getKey);
+
+    private static final Comparator<KeyUsage> BY_COUNT = Comparator.comparingLong(KeyUsage::getCount).reversed()
+            .thenComparing(BY_NAME);
+
+    private final int sampleRate;
+
+    private final ConcurrentMap<BundleKey, BundleUsage> usages = new ConcurrentHashMap<>();
+
+    /**
+     * 全ての参照を数えるコンストラクタ.
+     */
+    public BundleUsageTracker() {
+        this(1);
+    }
+
+    /**
+     * 参照を数える割合を指定するコンストラクタ.<br>
+     * sampleRate回に1回の割合で参照を数え、sampleRate回分として加算する.
+     *
+     * @param sampleRate 参照を数える割合（1以上）
+     */
+    public BundleUsageTracker(int sampleRate) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate must be positive: " + sampleRate);
+        }
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * 読み込んだResourceBundleを、参照回数を数えるResourceBundleに置き換える.<br>
+     * 親リソースが設定される前（newBundleの直後）に呼び出すことで、ResourceBundle自身が保持するキーと値を引き継ぐ.
+     *
+     * @param baseName リソースのbaseName
+     * @param locale ロケール
+     * @param bundle 読み込んだResourceBundle
+     * @return 参照回数を数えるResourceBundle. 対象外のResourceBundleクラスの場合は読み込んだResourceBundle
+     */
+    ResourceBundle track(String baseName, Locale locale, ResourceBundle bundle) {
+        if ((bundle instanceof PropertyResourceBundle
+             || bundle instanceof ListResourceBundle
+             || bundle instanceof XMLResourceBundle
+             || bundle instanceof MapResourceBundle) == false) {
+            return bundle;
+        }
+        BundleUsage usage = this.usages.computeIfAbsent(new BundleKey(baseName, locale), key -> new BundleUsage());
+        Set<String> keys = bundle.keySet();
+        Map<String, TrackedValue> values = new HashMap<>(keys.size() * 4 / 3 + 1);
+        for (String key : keys) {
+            values.put(key, new TrackedValue(bundle.getObject(key), usage.hits.computeIfAbsent(key, k -> new LongAdder())));
+        }
+        usage.currentKeys = Collections.unmodifiableSet(values.keySet());
+        return new TrackedResourceBundle(values, usage, this.sampleRate);
+    }
+
+    /**
+     * 参照回数を数えずにResourceBundleの値（親リソースを含む）を取得する.<br>
+     * エクスポートや再ロードの比較など、アプリケーションの参照ではない読み込みに使用する.
+     *
+     * @param bundle 値を取得するResourceBundle
+     * @param key キー
+     * @return 値. キーが存在しない場合はnull
+     */
+    static Object peek(ResourceBundle bundle, String key) {
+        if (bundle instanceof TrackedResourceBundle) {
+            return ((TrackedResourceBundle) bundle).peek(key);
+        }
+        if (bundle instanceof OverlayResourceBundle) {
+            return ((OverlayResourceBundle) bundle).peek(key);
+        }
+        return bundle.containsKey(key) ? bundle.getObject(key) : null;
+    }
+
+    /**
+     * 参照回数の多いキーを返却する.
+     *
+     * @param limit 返却する件数
+     * @return 参照回数の降順のキー
+     */
+    public List<KeyUsage> getHotKeys(int limit) {
+        List<KeyUsage> hotKeys = new ArrayList<>();
+        this.usages.forEach((bundleKey, usage) -> usage.hits.forEach((key, counter) -> {
+            long count = counter.sum();
+            if (count > 0) {
+                hotKeys.add(new KeyUsage(bundleKey.getBaseName(), bundleKey.getLocale(), key, count));
+            }
+        }));
+        hotKeys.sort(BY_COUNT);
+        return hotKeys.size() > limit ? new ArrayList<>(hotKeys.subList(0, limit)) : hotKeys;
+    }
+
+    /**
+     * 読み込んでから一度も参照されていないキーを返却する.<br>
+     * 再ロードで削除されたキーは対象外とする.
+     *
+     * @return baseName・ロケール・キーの昇順の未参照のキー
+     */
+    public List<KeyUsage> getUnusedKeys() {
+        List<KeyUsage> unusedKeys = new ArrayList<>();
+        this.usages.forEach((bundleKey, usage) -> usage.currentKeys.forEach(key -> {
+            LongAdder counter = usage.hits.get(key);
+            if (counter == null || counter.sum() == 0) {
+                unusedKeys.add(new KeyUsage(bundleKey.getBaseName(), bundleKey.getLocale(), key, 0));
+            }
+        }));
+        unusedKeys.sort(BY_NAME);
+        return unusedKeys;
+    }
+
+    /**
+     * ミスしたキー（ResourceBundle自身に無く親リソースを参照したキー）を返却する.
+     *
+     * @param limit 返却する件数
+     * @return ミスした回数の降順のキー
+     */
+    public List<KeyUsage> getMissedKeys(int limit) {
+        List<KeyUsage> missedKeys = new ArrayList<>();
+        this.usages.forEach((bundleKey, usage) -> usage.misses.forEach((key, counter) -> missedKeys.add(
+                new KeyUsage(bundleKey.getBaseName(), bundleKey.getLocale(), key, counter.sum()))));
+        missedKeys.sort(BY_COUNT);
+        return missedKeys.size() > limit ? new ArrayList<>(missedKeys.subList(0, limit)) : missedKeys;
+    }
+
+    /**
+     * baseName・ロケール毎の参照回数とミスの回数を返却する.
+     *
+     * @return baseName・ロケールの昇順の参照回数
+     */
+    public List<LocaleUsage> getLocaleUsages() {
+        List<LocaleUsage> localeUsages = new ArrayList<>();
+        this.usages.forEach((bundleKey, usage) -> {
+            long hits = usage.hits.values().stream().mapToLong(LongAdder::sum).sum();
+            long misses = usage.misses.values().stream().mapToLong(LongAdder::sum).sum() + usage.otherMisses.sum();
+            localeUsages.add(new LocaleUsage(bundleKey.getBaseName(), bundleKey.getLocale(), hits, misses));
+        });
+        localeUsages.sort(Comparator.comparing(LocaleUsage::getBaseName)
+                .thenComparing(usage -> usage.getLocale().toString()));
+        return localeUsages;
+    }
+
+    /**
+     * 参照されたキーを参照回数の降順でエクスポートする.<br>
+     * 1行に1キーを、baseName・ロケール（言語タグ）・キー・参照回数のタブ区切りで出力する.
+     * 事前読み込みや遅延読み込みの対象を決める際に{@link #read(java.io.Reader)}で読み込む.
+     *
+     * @param writer 出力先
+     * @throws IOException 出力時の例外
+     */
+    public void export(Writer writer) throws IOException {
+        writer.write(EXPORT_HEADER);
+        writer.write('\n');
+        for (KeyUsage usage : this.getHotKeys(Integer.MAX_VALUE)) {
+            writer.write(escape(usage.getBaseName()));
+            writer.write('\t');
+            writer.write(usage.getLocale().toLanguageTag());
+            writer.write('\t');
+            writer.write(escape(usage.getKey()));
+            writer.write('\t');
+            writer.write(Long.toString(usage.getCount()));
+            writer.write('\n');
+        }
+    }
+
+    /**
+     * {@link #export(java.io.Writer)}でエクスポートした集計結果を読み込む.
+     *
+     * @param reader 読み込み元
+     * @return 参照回数の降順のキー
+     * @throws IOException 読み込み時の例外、または形式が正しくない場合の例外
+     */
+    public static List<KeyUsage> read(Reader reader) throws IOException {
+        List<KeyUsage> usages = new ArrayList<>();
+        BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] columns = line.split("\t", -1);
+            if (columns.length != 4) {
+                throw new IOException("invalid usage line: " + line);
+            }
+            try {
+                usages.add(new KeyUsage(unescape(columns[0]), Locale.forLanguageTag(columns[1]),
+                                        unescape(columns[2]), Long.parseLong(columns[3])));
+            }
+            catch (NumberFormatException ex) {
+                throw new IOException("invalid usage line: " + line, ex);
+            }
+        }
+        return usages;
+    }
+
+    /**
+     * 集計結果を破棄する.<br>
+     * 読み込み済みのResourceBundleの参照回数も0から数え直す.
+     */
+    public void clear() {
+        this.usages.values().forEach(BundleUsage::reset);
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char escaped = text.charAt(++i);
+                switch (escaped) {
+                    case 't':
+                        sb.append('\t');
+                        break;
+                    case 'n':
+                        sb.append('\n');
+                        break;
+                    case 'r':
+                        sb.append('\r');
+                        break;
+                    default:
+                        sb.append(escaped);
+                }
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * baseName・ロケール毎の参照回数.<br>
+     * 参照したキーの回数はキー毎のLongAdderで数え、再ロード後のResourceBundleにも同じLongAdderを引き継ぐ.
+     */
+    private static class BundleUsage {
+
+        private final ConcurrentMap<String, LongAdder> hits = new ConcurrentHashMap<>();
+
+        private final ConcurrentMap<String, LongAdder> misses = new ConcurrentHashMap<>();
+
+        /* 個別に数える上限を超えたミス */
+        private final LongAdder otherMisses = new LongAdder();
+
+        private volatile Set<String> currentKeys = Collections.emptySet();
+
+        void miss(String key, int weight) {
+            LongAdder counter = this.misses.get(key);
+            if (counter == null) {
+                if (this.misses.size() >= MAX_MISSED_KEYS) {
+                    this.otherMisses.add(weight);
+                    return;
+                }
+                counter = this.misses.computeIfAbsent(key, k -> new LongAdder());
+            }
+            counter.add(weight);
+        }
+
+        void reset() {
+            this.hits.values().forEach(LongAdder::reset);
+            this.misses.clear();
+            this.otherMisses.reset();
+        }
+    }
+
+    /**
+     * 値と、そのキーの参照回数.<br>
+     * 参照時のハッシュ検索を1回にするため、値とLongAdderを組にして保持する.
+     */
+    private static class TrackedValue {
+
+        private final Object value;
+
+        private final LongAdder counter;
+
+        TrackedValue(Object value, LongAdder counter) {
+            this.value = value;
+            this.counter = counter;
+        }
+    }
+
+    /**
+     * 参照回数を数えるResourceBundle.<br>
+     * 読み込んだResourceBundle自身のキーと値を引き継ぎ、親リソースはResourceBundleの仕組みで設定される.
+     */
+    static class TrackedResourceBundle extends ResourceBundle {
+
+        private final Map<String, TrackedValue> values;
+
+        private final BundleUsage usage;
+
+        private final int sampleRate;
+
+        TrackedResourceBundle(Map<String, TrackedValue> values, BundleUsage usage, int sampleRate) {
+            this.values = values;
+            this.usage = usage;
+            this.sampleRate = sampleRate;
+        }
+
+        @Override
+        protected Object handleGetObject(String key) {
+            if (key == null) {
+                throw new NullPointerException();
+            }
+            TrackedValue tracked = this.values.get(key);
+            if (this.sampleRate == 1 || ThreadLocalRandom.current().nextInt(this.sampleRate) == 0) {
+                if (tracked != null) {
+                    tracked.counter.add(this.sampleRate);
+                } else {
+                    this.usage.miss(key, this.sampleRate);
+                }
+            }
+            return tracked == null ? null : tracked.value;
+        }
+
+        /**
+         * 参照回数を数えずに自身が保持する値を取得する.
+         */
+        Object peekOwn(String key) {
+            TrackedValue tracked = this.values.get(key);
+            return tracked == null ? null : tracked.value;
+        }
+
+        /**
+         * 参照回数を数えずに親リソースを含めて値を取得する.
+         */
+        Object peek(String key) {
+            Object value = this.peekOwn(key);
+            if (value != null || this.parent == null) {
+                return value;
+            }
+            return BundleUsageTracker.peek(this.parent, key);
+        }
+
+        @Override
+        public Enumeration<String> getKeys() {
+            return Collections.enumeration(this.keySet());
+        }
+
+        @Override
+        protected Set<String> handleKeySet() {
+            return this.values.keySet();
+        }
+    }
+}
@@ -18,26 +18,37 @@ package org.vermeer1977.infrastructure.resourcebundle;
  */
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.ref.SoftReference;
 import java.net.URL;
 import java.net.URLConnection;
-import java.security.AccessController;
-import java.security.PrivilegedActionException;
-import java.security.PrivilegedExceptionAction;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.Optional;
 import java.util.PropertyResourceBundle;
 import java.util.ResourceBundle;
 import java.util.ResourceBundle.Control;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import lombok.Builder;
 import lombok.Singular;
+import org.vermeer1977.infrastructure.resourcebundle.BundleSnapshots.SnapshotKey;
 
 /**
  * 通常のCotrolに加えて、文字コードを指定してResourseを取得できるように拡張をしたResourceBundle.Controlクラス.<br>
@@ -179,6 +190,97 @@ import lombok.Singular;
  *
  * </li>
  *
+ * <li>
+ * 解析済みリソースのスナップショットを使用する<br>
+ *
+ * 指定したディレクトリに、解析したproperties・xmlのスナップショットを保存する.<br>
+ * 次回以降（JVMの再起動後も含む）はリソースのURL・サイズ・更新日時が一致する場合、リソースを読み込まずにスナップショットから復元する.<br>
+ * 一致しない場合やスナップショットが読み込めない場合は、通常通りリソースを解析する.<br>
+ * <pre>
+ * {@code
+ * CustomControl control = CustomControl.builder().snapshotDirectory(Paths.get("/var/cache/app/bundles")).build();
+ * }
+ * </pre>
+ *
+ * </li>
+ *
+ * <li>
+ * リソースの取得元を指定する<br>
+ *
+ * properties・xmlをクラスローダーではなく、{@link BundleSource}から取得する.<br>
+ * baseNameの全ロケールのリソースを一度に取得し、候補ロケール毎の検索は取得済みの内容から行う.<br>
+ * <pre>
+ * {@code
+ * CustomControl control = CustomControl.builder().source(new ZipBundleSource(Paths.get("/opt/app/messages.zip"))).build();
+ * }
+ * </pre>
+ *
+ * </li>
+ *
+ * <li>
+ * 読み込んだResourceBundleのメモリ使用量を把握する<br>
+ *
+ * 読み込んだResourceBundleをbaseName・ロケール・フォーマット毎に記録し、メモリ使用量の推計を出力する.<br>
+ * <pre>
+ * {@code
+ * BundleDiagnostics diagnostics = new BundleDiagnostics();
+ * CustomControl control = CustomControl.builder().diagnostics(diagnostics).build();
+ * ...
+ * System.out.println(diagnostics.report().sorted(FootprintReport.BY_ESTIMATED_BYTES));
+ * }
+ * </pre>
+ *
+ * </li>
+ *
+ * <li>
+ * 再ロードの通知を受ける<br>
+ *
+ * キャッシュの有効期限切れでResourceBundleを再ロードした際、追加・変更・削除されたキーを通知する.<br>
+ * 通知はreloadExecutorで指定したExecutorで非同期に行う.
+ * 未指定の場合、Java8では{@link java.util.concurrent.ForkJoinPool#commonPool()}、Java21以降は仮想スレッドで通知する.<br>
+ * <pre>
+ * {@code
+ * CustomControl control = CustomControl.builder()
+ *  .timeToLive(60000L)
+ *  .reloadListener(event -> event.getChangedKeys().forEach(templateCache::invalidate))
+ *  .reloadExecutor(executor)
+ *  .build();
+ * }
+ * </pre>
+ *
+ * </li>
+ *
+ * <li>
+ * サイズの大きいpropertiesを並列に解析する<br>
+ *
+ * 指定したバイト数以上のpropertiesは、論理行の境界で分割してForkJoinPool（未指定の場合は{@link java.util.concurrent.ForkJoinPool#commonPool()}）で並列に解析する.<br>
+ * XMLは対象外.<br>
+ * <pre>
+ * {@code
+ * CustomControl control = CustomControl.builder()
+ *  .charCode("UTF-8")
+ *  .parallelParseThreshold(4L * 1024 * 1024)
+ *  .build();
+ * }
+ * </pre>
+ *
+ * </li>
+ *
+ * <li>
+ * キー毎の参照回数を集計する<br>
+ *
+ * 読み込んだResourceBundleのキー毎の参照回数とミス（親リソースを参照した回数）を集計し、参照の多いキー・未参照のキー・ロケール毎のミスの割合を出力する.<br>
+ * <pre>
+ * {@code
+ * BundleUsageTracker tracker = new BundleUsageTracker();
+ * CustomControl control = CustomControl.builder().usageTracker(tracker).build();
+ * ...
+ * tracker.getHotKeys(20).forEach(System.out::println);
+ * }
+ * </pre>
+ *
+ * </li>
+ *
  * </ul>
  *
  * 全ての設定は組み合わせて使用することが出来る。
@@ -209,8 +311,34 @@ public class CustomControl extends Control {
     @Singular
     private final List<TargetCandidateLocalePair> targetCandidateLocalePairs;
 
-    /* fallbackが再帰的に呼び込まれている状態 = 無限ループ */
-    private boolean isFallBackInfiniteLoop = false;
+    private final Path snapshotDirectory;
+
+    private final BundleSource source;
+
+    private final BundleDiagnostics diagnostics;
+
+    @Singular
+    private final List<BundleReloadListener> reloadListeners;
+
+    private final Executor reloadExecutor;
+
+    private final Long parallelParseThreshold;
+
+    private final ForkJoinPool parsePool;
+
+    private final BundleUsageTracker usageTracker;
+
+    /* 再ロード時の比較用に、読み込んだResourceBundle自身が保持するキー（reloadListenerを指定した場合のみ） */
+    private final ConcurrentMap<LoadedBundleKey, Set<String>> loadedKeys = new ConcurrentHashMap<>();
+
+    /* needsReloadで再ロードと判定し、newBundleで再ロードするまでの再ロード前のResourceBundle */
+    private final ConcurrentMap<LoadedBundleKey, ResourceBundle> reloadingBundles = new ConcurrentHashMap<>();
+
+    /* sourceから一括取得したリソース（候補ロケール毎のnewBundleで再利用する） */
+    private final ConcurrentMap<String, SoftReference<Map<String, byte[]>>> sourceBatches = new ConcurrentHashMap<>();
+
+    /* キャッシュしない（TTL_DONT_CACHE）場合に、1回の取得の候補ロケール毎のnewBundleでのみ再利用するリソース（getCandidateLocalesで破棄する） */
+    private final ConcurrentMap<String, SoftReference<Map<String, byte[]>>> lookupBatches = new ConcurrentHashMap<>();
 
     /**
      * 新しいResourceBundleを生成する.<br>
@@ -228,11 +356,89 @@ public class CustomControl extends Control {
     public ResourceBundle newBundle(String baseName, Locale locale, String format, ClassLoader loader, boolean reload)
             throws IllegalAccessException, InstantiationException, IOException {
 
-        this.isFallBackInfiniteLoop = false;
+        LoadedBundleKey key = new LoadedBundleKey(baseName, locale, format, loader);
+        ResourceBundle bundle;
+        try {
+            bundle = this.newBundleFormat(baseName, locale, format, loader, reload);
+        } catch (Throwable ex) {
+            // 再ロードに失敗した場合も再ロード前のResourceBundleを保持し続けない
+            this.reloadingBundles.remove(key);
+            throw ex;
+        }
+        if (bundle != null && this.usageTracker != null) {
+            // 診断・再ロードの比較は、ResourceBundleのキャッシュが保持する置き換え後のResourceBundleを対象とする
+            bundle = this.usageTracker.track(baseName, locale, bundle);
+        }
+        if (bundle != null && this.diagnostics != null) {
+            this.diagnostics.loaded(key, bundle);
+        }
+        if (this.reloadListeners.isEmpty() == false) {
+            this.notifyReloaded(key, bundle, reload);
+        }
+        return bundle;
+    }
+
+    /**
+     * 再ロードしたResourceBundleを再ロード前と比較して、reloadListenerへ非同期に通知する.<br>
+     * 次回の比較に備えて、ResourceBundle自身が保持するキーを記録する.<br>
+     * 再ロードでリソースが見つからなかった場合は、再ロード前の全てのキーを削除されたキーとして通知する.
+     *
+     * @param key 読み込んだResourceBundleのbaseName・ロケール・フォーマット・ClassLoader
+     * @param bundle 読み込んだResourceBundle（親リソース設定前）. リソースが見つからなかった場合はnull
+     * @param reload 再ロードの場合はtrue
+     */
+    private void notifyReloaded(LoadedBundleKey key, ResourceBundle bundle, boolean reload) {
+        // 破棄されたClassLoaderの記録を残さない
+        this.loadedKeys.keySet().removeIf(LoadedBundleKey::isLoaderCollected);
+        this.reloadingBundles.keySet().removeIf(LoadedBundleKey::isLoaderCollected);
+        Set<String> oldKeys = bundle == null
+                              ? this.loadedKeys.remove(key)
+                              : this.loadedKeys.put(key, new HashSet<>(bundle.keySet()));
+        ResourceBundle oldBundle = this.reloadingBundles.remove(key);
+        if (reload == false || oldBundle == null || oldKeys == null) {
+            return;
+        }
+        BundleReloadEvent event = BundleReloadEvent.of(key, oldBundle, oldKeys, bundle);
+        if (event.isEmpty()) {
+            return;
+        }
+        Executor executor = this.reloadExecutor == null ? PlatformSupport.defaultExecutor() : this.reloadExecutor;
+        this.reloadListeners.forEach(listener -> executor.execute(() -> listener.reloaded(event)));
+    }
+
+    /**
+     * フォーマットおよび取得元の指定に従ってResourceBundleを生成する.
+     *
+     * @see java.util.ResourceBundle.Control#newBundle(java.lang.String, java.util.Locale,
+     * java.lang.String,java.lang.ClassLoader, boolean)
+     *
+     * @param baseName
+     * @param locale
+     * @param format
+     * @param loader
+     * @param reload
+     * @return 生成したResourceBundle
+     * @throws IllegalAccessException
+     * @throws InstantiationException
+     * @throws IOException
+     */
+    private ResourceBundle newBundleFormat(String baseName, Locale locale, String format, ClassLoader loader, boolean reload)
+            throws IllegalAccessException, InstantiationException, IOException {
+
         if (CustomControl.FORMAT_CLASS.contains(format)) {
             return super.newBundle(baseName, locale, format, loader, reload);
         }
 
+        if (this.source != null
+            && (CustomControl.FORMAT_PROPERTIES.contains(format) || CustomControl.FORMAT_XML.contains(format))) {
+            return this.newBundleSource(baseName, locale, format, reload);
+        }
+
+        if (this.snapshotDirectory != null
+            && (CustomControl.FORMAT_PROPERTIES.contains(format) || CustomControl.FORMAT_XML.contains(format))) {
+            return this.newBundleSnapshot(baseName, locale, format, loader, reload);
+        }
+
         if (CustomControl.FORMAT_PROPERTIES.contains(format)) {
             return this.newBundleProperties(baseName, locale, loader, reload);
         }
@@ -271,38 +477,10 @@ public class CustomControl extends Control {
         if (resourceName == null) {
             return bundle;
         }
-        final ClassLoader classLoader = loader;
-        final boolean reloadFlag = reload;
-        InputStream stream = null;
-        try {
-            stream = AccessController.doPrivileged((PrivilegedExceptionAction<InputStream>) () -> {
-                InputStream is = null;
-                if (reloadFlag) {
-                    URL url = classLoader.getResource(resourceName);
-                    if (url != null) {
-                        URLConnection connection = url.openConnection();
-                        if (connection != null) {
-                            // Disable caches to get fresh data for reloading.
-                            connection.setUseCaches(false);
-                            is = connection.getInputStream();
-                        }
-                    }
-                } else {
-                    is = classLoader.getResourceAsStream(resourceName);
-                }
-                return is;
-            });
-        }
-        catch (PrivilegedActionException e) {
-            throw (IOException) e.getException();
-        }
+        InputStream stream = PlatformSupport.openStream(loader, resourceName, reload);
         if (stream != null) {
             try {
-                if (this.charCode != null) {
-                    bundle = new PropertyResourceBundle(new InputStreamReader(stream, this.charCode));
-                } else {
-                    bundle = new PropertyResourceBundle(stream);
-                }
+                bundle = this.newPropertyResourceBundle(stream);
             }
             finally {
                 stream.close();
@@ -311,6 +489,194 @@ public class CustomControl extends Control {
         return bundle;
     }
 
+    /**
+     * propertiesの内容をcharCodeで指定した文字コードで読み込みResourceBundleを生成する.<br>
+     * parallelParseThresholdを指定した場合は、内容を全て読み込んでからサイズにより解析方法を切り替える.
+     *
+     * @param stream propertiesの内容
+     * @return 生成したResourceBundle
+     * @throws IOException
+     */
+    private ResourceBundle newPropertyResourceBundle(InputStream stream) throws IOException {
+        if (this.parallelParseThreshold != null) {
+            return this.newPropertyResourceBundle(readAllBytes(stream));
+        }
+        return this.parsePropertyResourceBundle(stream);
+    }
+
+    /**
+     * propertiesの内容をcharCodeで指定した文字コードで読み込みResourceBundleを生成する.<br>
+     * parallelParseThresholdで指定したバイト数以上の場合は並列に解析する.
+     *
+     * @param content propertiesの内容
+     * @return 生成したResourceBundle
+     * @throws IOException
+     */
+    private ResourceBundle newPropertyResourceBundle(byte[] content) throws IOException {
+        if (this.parallelParseThreshold == null || content.length < this.parallelParseThreshold) {
+            return this.parsePropertyResourceBundle(new ByteArrayInputStream(content));
+        }
+        // charCodeの指定が無い場合は、逐次解析と同じく実行環境のPropertyResourceBundle(InputStream)の文字コードで読み込む
+        String text = this.charCode == null
+                      ? PlatformSupport.decodeProperties(content)
+                      : new String(content, Charset.forName(this.charCode));
+        ForkJoinPool pool = this.parsePool == null ? ForkJoinPool.commonPool() : this.parsePool;
+        return new MapResourceBundle(ParallelPropertiesParser.parse(text, pool));
+    }
+
+    private ResourceBundle parsePropertyResourceBundle(InputStream stream) throws IOException {
+        if (this.charCode != null) {
+            return new PropertyResourceBundle(new InputStreamReader(stream, this.charCode));
+        }
+        return new PropertyResourceBundle(stream);
+    }
+
+    /**
+     * スナップショットを使用してproperties・XMLファイルの読み込みResourceBundleを生成する.<br>
+     * リソースの内容からキーを作成し、一致するスナップショットがあれば解析せずに復元する.<br>
+     * 一致するスナップショットが無い場合は通常通り解析し、その結果をスナップショットとして保存する.
+     *
+     * @see java.util.ResourceBundle.Control#newBundle(java.lang.String, java.util.Locale,
+     * java.lang.String,java.lang.ClassLoader, boolean)
+     *
+     * @param baseName
+     * @param locale
+     * @param format
+     * @param loader
+     * @param reload
+     * @return 生成したResourceBundle
+     * @throws IOException
+     */
+    private ResourceBundle newBundleSnapshot(String baseName, Locale locale, String format, ClassLoader loader, boolean reload)
+            throws IOException {
+
+        boolean isProperties = CustomControl.FORMAT_PROPERTIES.contains(format);
+        String bundleName = toBundleName(baseName, locale);
+        if (bundleName.contains("://")) {
+            return null;
+        }
+        URL url = loader.getResource(toResourceName(bundleName, isProperties ? "properties" : "xml"));
+        if (url == null) {
+            return null;
+        }
+        URLConnection connection = url.openConnection();
+        if (reload) {
+            // Disable caches to get fresh data for reloading.
+            connection.setUseCaches(false);
+        }
+        long size = connection.getContentLengthLong();
+        long lastModified = connection.getLastModified();
+        try (InputStream stream = connection.getInputStream()) {
+            // 更新日時が取得できる場合はサイズ・更新日時で変更を判定し、スナップショットが使用できればリソースは読み込まない
+            byte[] content = lastModified > 0 ? null : readAllBytes(stream);
+            SnapshotKey key = new SnapshotKey(url.toString(), format, this.snapshotCharCode(isProperties),
+                                              size, lastModified, content == null ? 0L : BundleSnapshots.checksum(content));
+            HashMap<String, Object> entries = BundleSnapshots.read(this.snapshotDirectory, key);
+            if (entries != null) {
+                return MapResourceBundle.adopt(entries);
+            }
+
+            if (content == null) {
+                content = readAllBytes(stream);
+            }
+            ResourceBundle bundle = isProperties
+                                    ? this.newPropertyResourceBundle(content)
+                                    : new XMLResourceBundle(new ByteArrayInputStream(content));
+            Map<String, String> parsed = new HashMap<>();
+            for (String bundleKey : bundle.keySet()) {
+                parsed.put(bundleKey, bundle.getString(bundleKey));
+            }
+            BundleSnapshots.write(this.snapshotDirectory, key, parsed);
+            return bundle;
+        }
+    }
+
+    /**
+     * スナップショットのキーとする文字コード.<br>
+     * charCodeの指定が無いpropertiesは実行環境のPropertyResourceBundleの既定（Java8はISO-8859-1、Java9以降はUTF-8）で解析するので、
+     * 異なるバージョンのJavaで作成したスナップショットを使用しないよう、Javaの仕様バージョンと既定の文字コードを指定するシステムプロパティをキーとする.
+     *
+     * @param isProperties propertiesの場合はtrue
+     * @return スナップショットのキーとする文字コード
+     */
+    private String snapshotCharCode(boolean isProperties) {
+        if (isProperties == false) {
+            return "";
+        }
+        if (this.charCode != null) {
+            return this.charCode;
+        }
+        return "default:" + System.getProperty("java.specification.version")
+               + ":" + System.getProperty("java.util.PropertyResourceBundle.encoding", "");
+    }
+
+    /**
+     * sourceから一括取得したリソースでResourceBundleを生成する.<br>
+     * baseNameの全ロケールのリソースは最初のnewBundleで一度だけ取得し、以降の候補ロケールは取得済みの内容から生成する.<br>
+     * リロード時は改めて一括取得する.
+     * キャッシュしない（TTL_DONT_CACHE）場合は、JDKがreloadをfalseとして都度newBundleを呼び出すので、
+     * 取得の開始時（getCandidateLocales）に取得済みの内容を破棄し、1回の取得の間（候補ロケール毎のnewBundle）だけ取得した内容を再利用する.
+     *
+     * @see java.util.ResourceBundle.Control#newBundle(java.lang.String, java.util.Locale,
+     * java.lang.String,java.lang.ClassLoader, boolean)
+     *
+     * @param baseName
+     * @param locale
+     * @param format
+     * @param reload
+     * @return 生成したResourceBundle
+     * @throws IOException
+     */
+    private ResourceBundle newBundleSource(String baseName, Locale locale, String format, boolean reload)
+            throws IOException {
+
+        boolean isProperties = CustomControl.FORMAT_PROPERTIES.contains(format);
+        String suffix = isProperties ? "properties" : "xml";
+        String bundleName = toBundleName(baseName, locale);
+        if (bundleName.contains("://")) {
+            return null;
+        }
+        String batchKey = toBatchKey(baseName, suffix);
+        ConcurrentMap<String, SoftReference<Map<String, byte[]>>> batches
+                = this.getTimeToLive(baseName, locale) == TTL_DONT_CACHE ? this.lookupBatches : this.sourceBatches;
+        SoftReference<Map<String, byte[]>> reference = batches.get(batchKey);
+        Map<String, byte[]> batch = reference == null ? null : reference.get();
+        if (batch == null || reload) {
+            batch = this.source.fetchAll(baseName, suffix);
+            batches.put(batchKey, new SoftReference<>(batch));
+        }
+        byte[] content = batch.get(toResourceName(bundleName, suffix));
+        if (content == null) {
+            return null;
+        }
+        return isProperties
+               ? this.newPropertyResourceBundle(content)
+               : new XMLResourceBundle(new ByteArrayInputStream(content));
+    }
+
+    /**
+     * sourceから一括取得して保持しているリソースを破棄する.<br>
+     * {@link java.util.ResourceBundle#clearCache()}でキャッシュを破棄した後に取得元の最新の内容を読み込む場合に使用する.
+     */
+    public void clearSourceCache() {
+        this.sourceBatches.clear();
+        this.lookupBatches.clear();
+    }
+
+    private static String toBatchKey(String baseName, String suffix) {
+        return suffix + ":" + baseName;
+    }
+
+    static byte[] readAllBytes(InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int length;
+        while ((length = stream.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
+        }
+        return out.toByteArray();
+    }
+
     /**
      * XMLファイルの読み込みResourceBundleを生成する.
      *
@@ -368,6 +734,12 @@ public class CustomControl extends Control {
     @Override
     public List<Locale> getCandidateLocales(String baseName, Locale locale) {
 
+        if (this.lookupBatches.isEmpty() == false) {
+            // JDKは取得毎に候補ロケールを求めてからnewBundleを呼び出すので、前回の取得で使用したリソースはここで破棄する
+            this.lookupBatches.remove(toBatchKey(baseName, "properties"));
+            this.lookupBatches.remove(toBatchKey(baseName, "xml"));
+        }
+
         Optional<List<Locale>> candidateLocales = targetCandidateLocalePairs.stream()
                 .filter(pair -> pair.getTargetLocale().equals(locale))
                 .map(TargetCandidateLocalePair::getCandidateLocales)
@@ -385,20 +757,35 @@ public class CustomControl extends Control {
         return localeSetedCandidateLocales;
     }
 
+    /**
+     * 検索ロケール順を指定したロケール（targetLocale）を返却する.<br>
+     * Accept-Languageによるロケールの決定など、検索ロケール順の指定に合わせて対象ロケールを絞り込む際に使用する.<br>
+     *
+     * @return 検索ロケール順を指定したロケールのリスト
+     */
+    List<Locale> getTargetLocales() {
+        List<Locale> targetLocales = new ArrayList<>();
+        this.targetCandidateLocalePairs.stream()
+                .map(TargetCandidateLocalePair::getTargetLocale)
+                .forEachOrdered(targetLocales::add);
+        return Collections.unmodifiableList(targetLocales);
+    }
+
     /**
      * デフォルトリソースを取得する.<br>
      * リソースバンドルの検索時、指定したロケールに対応したリソースバンドルが存在しない場合、デフォルトリソースではなく、デフォルトロケールに対応したリソースバンドルを検索してしまう.<br>
      * 本対応をしないと意図したリソースではないデフォルトロケールを取得してしまい国際化対応が正しく行われない.<br>
+     * デフォルトリソースでも見つからずに再度呼び出された場合（localeがLocale.ROOT）は、fallbackが無限ループとなるので例外とする.<br>
+     * 判定に状態を持たないので、複数スレッドから同時にResourceBundleを取得しても誤って例外とならない.<br>
      *
      * @see java.util.ResourceBundle.Control#getFallbackLocale(java.lang.String, java.util.Locale)
      * @return デフォルトリソースのロケール
      */
     @Override
     public Locale getFallbackLocale(String baseName, Locale locale) {
-        if (this.isFallBackInfiniteLoop) {
+        if (Locale.ROOT.equals(locale)) {
             throw new MissingResourceException("you set baseName is  [" + baseName + "]. fallback locale, but does not exist baseName resource file. check ResourceBundle.getBundle param 'baseName' and resource file name.", baseName, "");
         }
-        this.isFallBackInfiniteLoop = true;
         return Locale.ROOT;
     }
 
@@ -444,7 +831,8 @@ public class CustomControl extends Control {
     /**
      * キャッシュ再ロード判定.<br>
      * キャッシュ内で有効期限の切れたbundleを再ロードする必要があるかどうかを、loadTimeに指定されたロード時刻やその他のいくつかの条件に基づいて判定する（継承元クラスのコメント抜粋）.<br>
-     * （拡張仕様が無いので継承元の操作をそのまま行う）<br>
+     * sourceを指定した場合、properties・xmlは有効期限が切れた時点で再ロードする.それ以外は継承元の操作をそのまま行う.<br>
+     * reloadListenerを指定した場合、再ロード後に比較するため再ロード前のResourceBundleを保持する.<br>
      *
      * @see java.util.ResourceBundle.Control#needsReload(java.lang.String, java.util.Locale,
      * java.lang.String, java.lang.ClassLoader, java.util.ResourceBundle, long)
@@ -452,8 +840,18 @@ public class CustomControl extends Control {
      */
     @Override
     public boolean needsReload(String baseName, Locale locale, String format, ClassLoader loader, ResourceBundle bundle, long loadTime) {
-        // ここを実装
-        return super.needsReload(baseName, locale, format, loader, bundle, loadTime);
+        boolean needsReload;
+        if (this.source != null
+            && (CustomControl.FORMAT_PROPERTIES.contains(format) || CustomControl.FORMAT_XML.contains(format))) {
+            // sourceは更新日時を持たないので、有効期限が切れたら取得し直す
+            needsReload = true;
+        } else {
+            needsReload = super.needsReload(baseName, locale, format, loader, bundle, loadTime);
+        }
+        if (needsReload && this.reloadListeners.isEmpty() == false) {
+            this.reloadingBundles.put(new LoadedBundleKey(baseName, locale, format, loader), bundle);
+        }
+        return needsReload;
     }
 
     /**
@@ -0,0 +1,70 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ディレクトリをリソースの取得元とするBundleSource.<br>
+ * baseNameをディレクトリからの相対パスとして扱い、同じディレクトリにある全ロケールのファイルを一度の走査で取得する.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class DirectoryBundleSource implements BundleSource {
+
+    private final Path root;
+
+    /**
+     * 取得元のディレクトリを指定するコンストラクタ.
+     *
+     * @param root 取得元のディレクトリ
+     */
+    public DirectoryBundleSource(Path root) {
+        this.root = root;
+    }
+
+    @Override
+    public Map<String, byte[]> fetchAll(String baseName, String suffix) throws IOException {
+        String prefix = baseName.replace('.', '/');
+        int separator = prefix.lastIndexOf('/');
+        String parent = separator < 0 ? "" : prefix.substring(0, separator + 1);
+        Path directory = this.root.resolve(parent);
+        if (Files.isDirectory(directory) == false) {
+            return Collections.emptyMap();
+        }
+        Map<String, byte[]> resources = new HashMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                Path fileName = file.getFileName();
+                if (fileName == null) {
+                    continue;
+                }
+                String resourceName = parent + fileName.toString();
+                if (BundleSource.isVariantOf(resourceName, baseName, suffix) && Files.isRegularFile(file)) {
+                    resources.put(resourceName, Files.readAllBytes(file));
+                }
+            }
+        }
+        return resources;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * エンコード済みのエクスポート内容.<br>
+ * UTF-8でエンコードしたバイト列をダイレクトバッファに保持し、内容のハッシュ値をETagとして保持する.<br>
+ * {@link #getBuffer()}は呼び出し毎に独立した位置情報を持つ読み取り専用のビューを返却するので、複数スレッドからそのままチャネルへ書き込むことができる.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class ExportedContent {
+
+    private final ByteBuffer buffer;
+
+    private final String contentType;
+
+    private final String eTag;
+
+    ExportedContent(byte[] bytes, String contentType) {
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.flip();
+        this.buffer = direct.asReadOnlyBuffer();
+        this.contentType = contentType;
+        this.eTag = "\"" + Digests.sha256Hex(bytes) + "\"";
+    }
+
+    /**
+     * エンコード済みの内容を返却する.<br>
+     * バッファの複製は行わず、位置情報のみ独立した読み取り専用のビューを返却する.
+     *
+     * @return 読み取り専用のバッファ
+     */
+    public ByteBuffer getBuffer() {
+        return this.buffer.duplicate();
+    }
+
+    /**
+     * 内容のバイト数を返却する.
+     *
+     * @return バイト数
+     */
+    public int getLength() {
+        return this.buffer.capacity();
+    }
+
+    /**
+     * Content-Typeヘッダに指定する値を返却する.
+     *
+     * @return Content-Type
+     */
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    /**
+     * 内容のSHA-256ハッシュ値によるETag（ダブルクォート付き）を返却する.
+     *
+     * @return ETag
+     */
+    public String getETag() {
+        return this.eTag;
+    }
+
+    /**
+     * 文字列をUTF-8でエンコードする.
+     *
+     * @param text 対象文字列
+     * @return エンコードしたバイト列
+     */
+    static byte[] utf8(CharSequence text) {
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
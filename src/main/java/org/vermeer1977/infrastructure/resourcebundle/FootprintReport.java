@@ -0,0 +1,120 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * BundleFootprintの一覧.<br>
+ * 並び替えた一覧を作成し、表形式の文字列として出力できる.
+ * <pre>
+ * {@code
+ * FootprintReport report = diagnostics.report().sorted(FootprintReport.BY_ESTIMATED_BYTES);
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+public class FootprintReport {
+
+    /**
+     * 推計バイト数の降順
+     */
+    public static final Comparator<BundleFootprint> BY_ESTIMATED_BYTES
+                                                    = Comparator.comparingLong(BundleFootprint::getEstimatedBytes).reversed();
+
+    /**
+     * 重複しているバイト数の降順
+     */
+    public static final Comparator<BundleFootprint> BY_DUPLICATED_BYTES
+                                                    = Comparator.comparingLong(BundleFootprint::getDuplicatedBytes).reversed();
+
+    /**
+     * baseName・ロケール・フォーマットの昇順
+     */
+    public static final Comparator<BundleFootprint> BY_NAME = Comparator.comparing(BundleFootprint::getBaseName)
+            .thenComparing(BundleFootprint::getLocale)
+            .thenComparing(BundleFootprint::getFormat);
+
+    private final List<BundleFootprint> footprints;
+
+    FootprintReport(List<BundleFootprint> footprints) {
+        this.footprints = Collections.unmodifiableList(new ArrayList<>(footprints));
+    }
+
+    /**
+     * 並び替えた一覧を作成する.
+     *
+     * @param comparator 並び順
+     * @return 並び替えた一覧
+     */
+    public FootprintReport sorted(Comparator<BundleFootprint> comparator) {
+        List<BundleFootprint> sorted = new ArrayList<>(this.footprints);
+        sorted.sort(comparator);
+        return new FootprintReport(sorted);
+    }
+
+    /**
+     * BundleFootprintの一覧を返却する.
+     *
+     * @return BundleFootprintの一覧
+     */
+    public List<BundleFootprint> getFootprints() {
+        return this.footprints;
+    }
+
+    /**
+     * 全ResourceBundleの推計バイト数の合計を返却する.
+     *
+     * @return 推計バイト数の合計
+     */
+    public long getTotalEstimatedBytes() {
+        return this.footprints.stream().mapToLong(BundleFootprint::getEstimatedBytes).sum();
+    }
+
+    /**
+     * 全ResourceBundleの重複しているバイト数の合計を返却する.
+     *
+     * @return 重複しているバイト数の合計
+     */
+    public long getTotalDuplicatedBytes() {
+        return this.footprints.stream().mapToLong(BundleFootprint::getDuplicatedBytes).sum();
+    }
+
+    /**
+     * 一覧を表形式の文字列で返却する.
+     *
+     * @return 表形式の文字列
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-40s %-10s %-15s %8s %12s %12s %12s%n",
+                                "baseName", "locale", "format", "keys", "estimated", "duplicated", "overhead"));
+        for (BundleFootprint footprint : this.footprints) {
+            sb.append(String.format("%-40s %-10s %-15s %8d %12d %12d %12d%n",
+                                    footprint.getBaseName(), footprint.getLocale(), footprint.getFormat(),
+                                    footprint.getKeyCount(), footprint.getEstimatedBytes(),
+                                    footprint.getDuplicatedBytes(), footprint.getMapOverheadBytes()));
+        }
+        sb.append(String.format("total estimated=%d duplicated=%d%n", this.getTotalEstimatedBytes(), this.getTotalDuplicatedBytes()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * メモリ上に保持したリソースを取得元とするBundleSource.<br>
+ * キーバリューストア等から取得した内容を、リソース名と内容の組み合わせで指定する.
+ * <pre>
+ * {@code
+ * Map<String, byte[]> resources = new HashMap<>();
+ * resources.put("messages/app.properties", defaultBytes);
+ * resources.put("messages/app_ja_JP.properties", japaneseBytes);
+ * BundleSource source = new InMemoryBundleSource(resources);
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+public class InMemoryBundleSource implements BundleSource {
+
+    private final Map<String, byte[]> resources;
+
+    /**
+     * リソース名と内容の組み合わせを指定するコンストラクタ.<br>
+     * 指定したMapおよび内容は複製して保持する.
+     *
+     * @param resources リソース名と内容
+     */
+    public InMemoryBundleSource(Map<String, byte[]> resources) {
+        this.resources = new HashMap<>();
+        resources.forEach((resourceName, content) -> this.resources.put(resourceName, content.clone()));
+    }
+
+    @Override
+    public Map<String, byte[]> fetchAll(String baseName, String suffix) {
+        Map<String, byte[]> variants = new HashMap<>();
+        this.resources.forEach((resourceName, content) -> {
+            if (BundleSource.isVariantOf(resourceName, baseName, suffix)) {
+                variants.put(resourceName, content.clone());
+            }
+        });
+        return variants;
+    }
+}
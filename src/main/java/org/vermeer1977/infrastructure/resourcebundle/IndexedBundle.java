@@ -0,0 +1,147 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+/**
+ * KeyIndexの順序で値を配列に並べたResourceBundleの読み込み結果.<br>
+ * 親リソースへの委譲は生成時に解決済みなので、値の参照は配列の添字による参照のみとなる.<br>
+ * 存在しないキーは生成時に{@link #getMissingKeys()}として把握できるので、参照時には例外をスローせずnullを返却する.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class IndexedBundle {
+
+    private final ResourceBundle source;
+
+    private final KeyIndex keyIndex;
+
+    private final Object[] values;
+
+    private final List<String> missingKeys;
+
+    private IndexedBundle(ResourceBundle source, KeyIndex keyIndex, Object[] values, List<String> missingKeys) {
+        this.source = source;
+        this.keyIndex = keyIndex;
+        this.values = values;
+        this.missingKeys = missingKeys;
+    }
+
+    /**
+     * ResourceBundleの値をKeyIndexの順序で配列に並べる.
+     *
+     * @param keyIndex キーと添字の対応
+     * @param bundle 値を取得するResourceBundle
+     * @return 生成したIndexedBundle
+     */
+    public static IndexedBundle of(KeyIndex keyIndex, ResourceBundle bundle) {
+        Object[] values = new Object[keyIndex.size()];
+        List<String> missingKeys = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            String key = keyIndex.keyAt(i);
+            values[i] = BundleUsageTracker.peek(bundle, key);
+            if (values[i] == null) {
+                missingKeys.add(key);
+            }
+        }
+        return new IndexedBundle(bundle, keyIndex, values, Collections.unmodifiableList(missingKeys));
+    }
+
+    /**
+     * 生成元のResourceBundleと同一インスタンスであるか判定する.
+     *
+     * @param bundle 判定対象のResourceBundle
+     * @return 同一インスタンスの場合はtrue
+     */
+    boolean isIndexOf(ResourceBundle bundle) {
+        return this.source == bundle;
+    }
+
+    /**
+     * 指定した位置の値を返却する.
+     *
+     * @param index キーの位置
+     * @return 値. キーが存在しない場合はnull
+     */
+    public Object getObject(int index) {
+        return this.values[index];
+    }
+
+    /**
+     * 指定したキーの値を返却する.
+     *
+     * @param key キー
+     * @return 値. キーが存在しない場合はnull
+     * @throws IllegalArgumentException 生成時のKeyIndexのキーではない場合
+     */
+    public Object getObject(TypedKey key) {
+        return this.values[this.keyIndex.indexOf(key)];
+    }
+
+    /**
+     * 指定した位置の文字列を返却する.
+     *
+     * @param index キーの位置
+     * @return 文字列. キーが存在しない場合はnull
+     */
+    public String getString(int index) {
+        return (String) this.values[index];
+    }
+
+    /**
+     * 指定したキーの文字列を返却する.
+     *
+     * @param key キー
+     * @return 文字列. キーが存在しない場合はnull
+     * @throws IllegalArgumentException 生成時のKeyIndexのキーではない場合
+     */
+    public String getString(TypedKey key) {
+        return (String) this.values[this.keyIndex.indexOf(key)];
+    }
+
+    /**
+     * キーと添字の対応を返却する.
+     *
+     * @return キーと添字の対応
+     */
+    public KeyIndex getKeyIndex() {
+        return this.keyIndex;
+    }
+
+    /**
+     * 生成元のResourceBundle（親リソースを含む）に存在しなかったキーを返却する.
+     *
+     * @return 存在しなかったキーのリスト
+     */
+    public List<String> getMissingKeys() {
+        return this.missingKeys;
+    }
+
+    /**
+     * 生成元のResourceBundleのロケールを返却する.
+     *
+     * @return ロケール
+     */
+    public Locale getLocale() {
+        return this.source.getLocale();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.Builder;
+
+/**
+ * CustomControlで取得したResourceBundleをIndexedBundleとして読み込むクラス.<br>
+ * 読み込み結果はbaseNameとlocaleの組み合わせ毎に保持し、ResourceBundleがリロードされた場合のみ作り直す.<br>
+ * <br>
+ * 実装例
+ * <pre>
+ * {@code
+ * IndexedBundleLoader loader = IndexedBundleLoader.builder()
+ *  .control(CustomControl.builder().charCode("UTF-8").build())
+ *  .keyIndex(KeyIndex.of(MessageKey.class))
+ *  .build();
+ *
+ * IndexedBundle bundle = loader.load("messages", Locale.JAPAN);
+ * bundle.getMissingKeys().forEach(key -> logger.warn("missing key : " + key));
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+@Builder
+public class IndexedBundleLoader {
+
+    private final CustomControl control;
+
+    private final KeyIndex keyIndex;
+
+    private final ConcurrentMap<BundleKey, IndexedBundle> bundles = new ConcurrentHashMap<>();
+
+    /**
+     * baseNameとlocaleで解決したResourceBundleをIndexedBundleとして読み込む.<br>
+     * ResourceBundleが前回の読み込み時と同一インスタンス（リロードされていない）の場合は、保持している読み込み結果をそのまま返却する.
+     *
+     * @param baseName リソースのbaseName
+     * @param locale ロケール
+     * @return 読み込み結果
+     */
+    public IndexedBundle load(String baseName, Locale locale) {
+        ResourceBundle bundle = this.control == null
+                                ? ResourceBundle.getBundle(baseName, locale)
+                                : ResourceBundle.getBundle(baseName, locale, this.control);
+        BundleKey key = new BundleKey(baseName, locale);
+        IndexedBundle current = this.bundles.get(key);
+        if (current != null && current.isIndexOf(bundle)) {
+            return current;
+        }
+        IndexedBundle created = IndexedBundle.of(this.keyIndex, bundle);
+        this.bundles.put(key, created);
+        return created;
+    }
+
+    /**
+     * 保持している読み込み結果を破棄する.
+     */
+    public void clear() {
+        this.bundles.clear();
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+/**
+ * リソースのキーと配列の添字の対応.<br>
+ * デフォルトリソースのキーから作成し、IndexedBundleはこの順序で値を配列に並べる.<br>
+ * キーを定数として扱うためのenumのソースを生成することもできる.<br>
+ * <br>
+ * 実装例
+ * <pre>
+ * {@code
+ * // ビルド時：デフォルトリソースからenumのソースを生成する
+ * ResourceBundle defaultBundle = ResourceBundle.getBundle("messages", Locale.ROOT, control);
+ * String source = KeyIndex.of(defaultBundle).toEnumSource("com.example", "MessageKey");
+ *
+ * // 実行時：生成したenumの順序で値を配列に並べる
+ * KeyIndex index = KeyIndex.of(MessageKey.class);
+ * IndexedBundle bundle = IndexedBundle.of(index, ResourceBundle.getBundle("messages", Locale.JAPAN, control));
+ * String title = bundle.getString(MessageKey.TITLE);
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+public class KeyIndex {
+
+    private final String[] keys;
+
+    private final Map<String, Integer> indexes;
+
+    private final Class<?> keyType;
+
+    private KeyIndex(String[] keys, Class<?> keyType) {
+        this.keys = keys;
+        this.keyType = keyType;
+        this.indexes = new HashMap<>(keys.length * 4 / 3 + 1);
+        for (int i = 0; i < keys.length; i++) {
+            this.indexes.put(keys[i], i);
+        }
+    }
+
+    /**
+     * ResourceBundleの全キー（親リソースを含む）を昇順に並べたKeyIndexを作成する.
+     *
+     * @param bundle デフォルトリソースのResourceBundle
+     * @return 作成したKeyIndex
+     */
+    public static KeyIndex of(ResourceBundle bundle) {
+        List<String> keys = new ArrayList<>(bundle.keySet());
+        Collections.sort(keys);
+        return new KeyIndex(keys.toArray(new String[keys.size()]), null);
+    }
+
+    /**
+     * 生成したenumの定数順に並べたKeyIndexを作成する.<br>
+     * 定数の{@link TypedKey#index()}と定義順が一致しない場合は、生成後にenumが編集されたものとして例外とする.
+     *
+     * @param <E> {@link TypedKey}を実装したenum
+     * @param keyType enumのクラス
+     * @return 作成したKeyIndex
+     */
+    public static <E extends Enum<E> & TypedKey> KeyIndex of(Class<E> keyType) {
+        E[] constants = keyType.getEnumConstants();
+        String[] keys = new String[constants.length];
+        for (E constant : constants) {
+            if (constant.index() != constant.ordinal()) {
+                throw new IllegalArgumentException("index does not match ordinal: " + constant.name());
+            }
+            keys[constant.ordinal()] = constant.key();
+        }
+        return new KeyIndex(keys, keyType);
+    }
+
+    /**
+     * キーの数を返却する.
+     *
+     * @return キーの数
+     */
+    public int size() {
+        return this.keys.length;
+    }
+
+    /**
+     * 指定した位置のキーを返却する.
+     *
+     * @param index キーの位置
+     * @return リソースのキー
+     */
+    public String keyAt(int index) {
+        return this.keys[index];
+    }
+
+    /**
+     * キーの位置を返却する.
+     *
+     * @param key リソースのキー
+     * @return キーの位置. 存在しない場合は-1
+     */
+    public int indexOf(String key) {
+        Integer index = this.indexes.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * TypedKeyがこのKeyIndexのキーであることを検証して位置を返却する.<br>
+     * enumから作成した場合はenumのクラスが一致すること、ResourceBundleから作成した場合は位置とキーが一致することを検証する.
+     *
+     * @param key 検証するキー
+     * @return キーの位置
+     * @throws IllegalArgumentException このKeyIndexのキーではない場合
+     */
+    int indexOf(TypedKey key) {
+        int index = key.index();
+        if (this.keyType != null) {
+            Class<?> type = key instanceof Enum ? ((Enum<?>) key).getDeclaringClass() : key.getClass();
+            if (type != this.keyType) {
+                throw new IllegalArgumentException("key type " + type.getName() + " does not match " + this.keyType.getName() + ": " + key.key());
+            }
+            return index;
+        }
+        if (index < 0 || index >= this.keys.length || this.keys[index].equals(key.key()) == false) {
+            throw new IllegalArgumentException("key is not in this index: " + key.key() + " at " + index);
+        }
+        return index;
+    }
+
+    /**
+     * 全キーを位置の順に返却する.
+     *
+     * @return キーのリスト
+     */
+    public List<String> getKeys() {
+        return Collections.unmodifiableList(Arrays.asList(this.keys));
+    }
+
+    /**
+     * キーを定数とする{@link TypedKey}を実装したenumのソースを生成する.<br>
+     * 定数名はキーを大文字にして、英数字以外をアンダースコアに置き換えたもの.重複する場合は位置を付与する.
+     *
+     * @param packageName 生成するenumのパッケージ名（空文字の場合はパッケージ宣言を出力しない）
+     * @param enumName 生成するenumの名前
+     * @return enumのソース
+     */
+    public String toEnumSource(String packageName, String enumName) {
+        StringBuilder sb = new StringBuilder();
+        if (packageName.isEmpty() == false) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("import ").append(TypedKey.class.getName()).append(";\n\n");
+        sb.append("/**\n * Generated by ").append(KeyIndex.class.getName()).append(". Do not edit.\n */\n");
+        sb.append("public enum ").append(enumName).append(" implements TypedKey {\n\n");
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < this.keys.length; i++) {
+            String name = toConstantName(this.keys[i]);
+            if (names.add(name) == false) {
+                // 付け直した名前も他のキーと重複する場合があるので、重複しなくなるまで連番を付ける
+                String renamed = name + "_" + i;
+                for (int suffix = 2; names.add(renamed) == false; suffix++) {
+                    renamed = name + "_" + i + "_" + suffix;
+                }
+                name = renamed;
+            }
+            sb.append("    ").append(name).append("(\"").append(escapeJava(this.keys[i])).append("\")");
+            sb.append(i < this.keys.length - 1 ? ",\n" : ";\n");
+        }
+        if (this.keys.length == 0) {
+            sb.append("    ;\n");
+        }
+        sb.append("\n    private final String key;\n\n");
+        sb.append("    private ").append(enumName).append("(String key) {\n        this.key = key;\n    }\n\n");
+        sb.append("    @Override\n    public int index() {\n        return this.ordinal();\n    }\n\n");
+        sb.append("    @Override\n    public String key() {\n        return this.key;\n    }\n}\n");
+        return sb.toString();
+    }
+
+    private static String toConstantName(String key) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : key.toUpperCase(Locale.ROOT).toCharArray()) {
+            sb.append((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ? c : '_');
+        }
+        if (sb.length() == 0 || Character.isDigit(sb.charAt(0))) {
+            sb.insert(0, '_');
+        }
+        return sb.toString();
+    }
+
+    private static String escapeJava(String text) {
+        StringBuilder sb = new StringBuilder();
+        for (char c : text.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20 || c > 0x7E) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
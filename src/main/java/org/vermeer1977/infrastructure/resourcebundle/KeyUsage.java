@@ -0,0 +1,39 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Locale;
+import lombok.Value;
+
+/**
+ * キー毎の参照回数.<br>
+ * {@link BundleUsageTracker}の集計結果、およびエクスポートした集計結果の読み込み結果として使用する.
+ *
+ * @author Yamashita,Takahiro
+ */
+@Value
+public class KeyUsage {
+
+    private final String baseName;
+
+    private final Locale locale;
+
+    private final String key;
+
+    private final long count;
+
+}
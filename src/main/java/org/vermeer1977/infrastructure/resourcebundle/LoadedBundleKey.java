@@ -0,0 +1,105 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.Objects;
+import lombok.Getter;
+
+/**
+ * CustomControlが読み込んだResourceBundleを特定するbaseName・ロケール・フォーマット・ClassLoaderの組み合わせ.<br>
+ * 同じCustomControlを複数のClassLoaderで使用しても区別できるよう、ResourceBundleのキャッシュと同じくClassLoaderを含める.<br>
+ * ClassLoaderの破棄を妨げないよう弱参照で保持し、同一インスタンスであるかで比較する.
+ *
+ * @author Yamashita,Takahiro
+ */
+class LoadedBundleKey {
+
+    @Getter
+    private final String baseName;
+
+    @Getter
+    private final Locale locale;
+
+    @Getter
+    private final String format;
+
+    private final WeakReference<ClassLoader> loader;
+
+    private final int loaderHash;
+
+    LoadedBundleKey(String baseName, Locale locale, String format, ClassLoader loader) {
+        this.baseName = baseName;
+        this.locale = locale;
+        this.format = format;
+        this.loader = loader == null ? null : new WeakReference<>(loader);
+        this.loaderHash = System.identityHashCode(loader);
+    }
+
+    /**
+     * ClassLoaderを返却する.
+     *
+     * @return ClassLoader. 指定が無い場合または破棄された場合はnull
+     */
+    ClassLoader getLoader() {
+        return this.loader == null ? null : this.loader.get();
+    }
+
+    /**
+     * ClassLoaderが破棄されたか判定する.
+     *
+     * @return 破棄された場合はtrue
+     */
+    boolean isLoaderCollected() {
+        return this.loader != null && this.loader.get() == null;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof LoadedBundleKey == false) {
+            return false;
+        }
+        LoadedBundleKey other = (LoadedBundleKey) obj;
+        if (this.loaderHash != other.loaderHash
+            || this.baseName.equals(other.baseName) == false
+            || this.locale.equals(other.locale) == false
+            || this.format.equals(other.format) == false) {
+            return false;
+        }
+        if (this.loader == null || other.loader == null) {
+            return this.loader == other.loader;
+        }
+        // 破棄されたClassLoaderのキーは自身以外と一致させない
+        ClassLoader thisLoader = this.loader.get();
+        return thisLoader != null && thisLoader == other.loader.get();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.baseName, this.locale, this.format, this.loaderHash);
+    }
+
+    @Override
+    public String toString() {
+        return "LoadedBundleKey(baseName=" + this.baseName + ", locale=" + this.locale + ", format=" + this.format
+               + ", loader=" + this.getLoader() + ")";
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Locale.LanguageRange;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.Builder;
+import lombok.Singular;
+
+/**
+ * HTTPリクエストのAccept-Languageヘッダの値からロケールを決定し、ResourceBundleを取得するクラス.<br>
+ * 対象となるロケールは、CustomControlで検索ロケール順を指定したロケール（targetLocale）と、supportedLocaleで指定したロケール.<br>
+ * ヘッダの値と決定したロケールの組み合わせは上限件数まで保持し、同じヘッダの値であれば解析・照合を行わずに再利用する.<br>
+ * <br>
+ * 実装例
+ * <pre>
+ * {@code
+ * LocaleNegotiator negotiator = LocaleNegotiator.builder()
+ *  .control(CustomControl.builder()
+ *      .charCode("UTF-8")
+ *      .targetCandidateLocalePair(
+ *          TargetCandidateLocalePair.builder()
+ *              .targetLocale(Locale.JAPAN)
+ *              .candidateLocale(Locale.JAPAN)
+ *              .candidateLocale(Locale.ROOT)
+ *              .build())
+ *      .build())
+ *  .supportedLocale(Locale.US)
+ *  .defaultLocale(Locale.ROOT)
+ *  .build();
+ *
+ * ResourceBundle bundle = negotiator.getBundle("resourcebundle.test.utf8", request.getHeader("Accept-Language"));
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+@Builder
+public class LocaleNegotiator {
+
+    /**
+     * ヘッダの値と決定したロケールを保持するデフォルトの上限件数
+     */
+    public static final int DEFAULT_MAX_CACHE_SIZE = 1024;
+
+    private final CustomControl control;
+
+    @Singular
+    private final List<Locale> supportedLocales;
+
+    private final Locale defaultLocale;
+
+    private final Integer maxCacheSize;
+
+    private final ConcurrentMap<String, Locale> negotiatedLocales = new ConcurrentHashMap<>();
+
+    /**
+     * Accept-Languageヘッダの値から、対象となるロケールのうち最も優先度の高いロケールを決定する.<br>
+     * 一致するロケールが無い場合、またはヘッダの値が不正な場合はdefaultLocale（未指定の場合は{@code Locale.ROOT}）を返却する.
+     *
+     * @param acceptLanguage Accept-Languageヘッダの値
+     * @return 決定したロケール
+     */
+    public Locale negotiate(String acceptLanguage) {
+        if (acceptLanguage == null || acceptLanguage.trim().isEmpty()) {
+            return this.getDefaultLocale();
+        }
+        Locale cached = this.negotiatedLocales.get(acceptLanguage);
+        if (cached != null) {
+            return cached;
+        }
+        Locale negotiated = this.lookup(acceptLanguage);
+        if (this.negotiatedLocales.size() >= this.getMaxCacheSize()) {
+            // 上限を超えた場合は全て破棄して、改めて使用されるヘッダの値を保持し直す
+            this.negotiatedLocales.clear();
+        }
+        this.negotiatedLocales.put(acceptLanguage, negotiated);
+        return negotiated;
+    }
+
+    /**
+     * Accept-Languageヘッダの値から決定したロケールでResourceBundleを取得する.
+     *
+     * @param baseName リソースのbaseName
+     * @param acceptLanguage Accept-Languageヘッダの値
+     * @return 取得したResourceBundle
+     */
+    public ResourceBundle getBundle(String baseName, String acceptLanguage) {
+        Locale locale = this.negotiate(acceptLanguage);
+        return this.control == null
+               ? ResourceBundle.getBundle(baseName, locale)
+               : ResourceBundle.getBundle(baseName, locale, this.control);
+    }
+
+    /**
+     * 保持しているヘッダの値と決定したロケールの組み合わせを破棄する.
+     */
+    public void clearCache() {
+        this.negotiatedLocales.clear();
+    }
+
+    private Locale lookup(String acceptLanguage) {
+        List<LanguageRange> ranges;
+        try {
+            ranges = LanguageRange.parse(acceptLanguage);
+        }
+        catch (IllegalArgumentException ex) {
+            return this.getDefaultLocale();
+        }
+        List<Locale> candidates = this.getCandidates();
+        for (LanguageRange range : ranges) {
+            if (range.getWeight() == 0) {
+                continue;
+            }
+            Locale locale = this.match(range, candidates);
+            if (locale != null) {
+                return locale;
+            }
+        }
+        return this.getDefaultLocale();
+    }
+
+    /**
+     * 1つの言語範囲に一致するロケールを決定する.<br>
+     * lookupは言語範囲の方のみを短くして照合するため、言語のみの範囲（ja）は地域を含むロケール（ja_JP）に一致しない.
+     * lookupで一致しない場合は、filterで言語範囲に含まれるロケールを照合する.<br>
+     * 言語範囲毎に照合するので、優先度の高い言語範囲がfilterでのみ一致する場合も、優先度の低い言語範囲より優先する.
+     *
+     * @param range 言語範囲
+     * @param candidates 対象となるロケール
+     * @return 一致したロケール. 一致しない場合はnull
+     */
+    private Locale match(LanguageRange range, List<Locale> candidates) {
+        List<LanguageRange> single = Collections.singletonList(range);
+        Locale locale = Locale.lookup(single, candidates);
+        if (locale != null) {
+            return locale;
+        }
+        if ("*".equals(range.getRange())) {
+            // ワイルドカードは特定の言語を指定していないので、デフォルトロケールとする
+            return null;
+        }
+        List<Locale> filtered = Locale.filter(single, candidates);
+        return filtered.isEmpty() ? null : filtered.get(0);
+    }
+
+    private List<Locale> getCandidates() {
+        List<Locale> candidates = new ArrayList<>();
+        if (this.control != null) {
+            candidates.addAll(this.control.getTargetLocales());
+        }
+        candidates.addAll(this.supportedLocales);
+        return candidates;
+    }
+
+    private Locale getDefaultLocale() {
+        return this.defaultLocale == null ? Locale.ROOT : this.defaultLocale;
+    }
+
+    private int getMaxCacheSize() {
+        return this.maxCacheSize == null ? DEFAULT_MAX_CACHE_SIZE : this.maxCacheSize;
+    }
+}
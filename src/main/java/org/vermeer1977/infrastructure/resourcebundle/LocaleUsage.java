@@ -0,0 +1,48 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Locale;
+import lombok.Value;
+
+/**
+ * baseName・ロケール毎の参照回数.<br>
+ * 参照したキーがそのロケールのResourceBundle自身に無く、親リソースを参照した場合をミスとして数える.
+ *
+ * @author Yamashita,Takahiro
+ */
+@Value
+public class LocaleUsage {
+
+    private final String baseName;
+
+    private final Locale locale;
+
+    private final long hits;
+
+    private final long misses;
+
+    /**
+     * 参照回数に対するミスの割合を返却する.
+     *
+     * @return ミスの割合（参照が無い場合は0）
+     */
+    public double getMissRate() {
+        long total = this.hits + this.misses;
+        return total == 0 ? 0d : (double) this.misses / total;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+/**
+ * 読み込み済みのキーと値を保持するResourceBundleクラス.<br>
+ * スナップショットから復元した場合など、リソースファイルを解析せずに生成したResourceBundleとして使用する.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class MapResourceBundle extends ResourceBundle {
+
+    private final Map<String, Object> entries;
+
+    /**
+     * キーと値を指定するコンストラクタ.<br>
+     * 指定したMapは複製して保持する.
+     *
+     * @param entries キーと値
+     */
+    public MapResourceBundle(Map<String, ?> entries) {
+        this(new HashMap<String, Object>(entries));
+    }
+
+    /* 複製済み、または他から参照されないHashMapをそのまま保持する */
+    private MapResourceBundle(HashMap<String, Object> entries) {
+        this.entries = Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * 指定したMapを複製せずに保持するResourceBundleを生成する.<br>
+     * スナップショットから復元した場合など、呼び出し元で生成して以降は変更しないMapに使用する.
+     *
+     * @param entries キーと値
+     * @return 生成したResourceBundle
+     */
+    static MapResourceBundle adopt(HashMap<String, Object> entries) {
+        return new MapResourceBundle(entries);
+    }
+
+    @Override
+    public Object handleGetObject(String key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return this.entries.get(key);
+    }
+
+    @Override
+    public Enumeration<String> getKeys() {
+        Set<String> keys = this.keySet();
+        return Collections.enumeration(keys);
+    }
+
+    @Override
+    protected Set<String> handleKeySet() {
+        return this.entries.keySet();
+    }
+}
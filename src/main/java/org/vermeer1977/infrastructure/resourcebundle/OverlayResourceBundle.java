@@ -0,0 +1,229 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListResourceBundle;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import java.util.Set;
+
+/**
+ * 共有するResourceBundleに、上書きするキーと値（差分）をロケールの階層毎に重ねたResourceBundleクラス.<br>
+ * 候補ロケールの階層毎に、上書きするResourceBundleの値を共有するResourceBundleの同じ階層の値より優先する.<br>
+ * 例えばja_JPの場合は、上書きja_JP → 共有ja_JP → 上書きja → 共有ja → 上書きルート → 共有ルートの順に参照する.<br>
+ * 自身は上書きするResourceBundleの差分のみを保持し、共有するResourceBundleの値は複製せずに参照する.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class OverlayResourceBundle extends ResourceBundle {
+
+    private final Locale locale;
+
+    private final Map<String, Object> delta;
+
+    /* 上書きするキーより後に参照する、共有するResourceBundleの同じ階層（親リソースが上書きを含む場合のみ） */
+    private final ResourceBundle baseLevel;
+
+    /* baseLevelより下位で最初に存在する共有するResourceBundleの階層（baseLevel自身が保持する値の判定に使用する） */
+    private final ResourceBundle baseNext;
+
+    private OverlayResourceBundle(Locale locale, Map<String, Object> delta,
+                                  ResourceBundle baseLevel, ResourceBundle baseNext, ResourceBundle parent) {
+        this.locale = locale;
+        this.delta = delta;
+        this.baseLevel = baseLevel;
+        this.baseNext = baseNext;
+        this.setParent(parent);
+    }
+
+    /**
+     * 候補ロケールの階層毎に、上書きするResourceBundleを共有するResourceBundleの前に重ねる.<br>
+     * 各リストは候補ロケール順に、その階層のResourceBundle（存在しない階層はnull）を保持する.
+     *
+     * @param candidateLocales 候補ロケール（優先度順）
+     * @param baseLevels 共有するResourceBundleの階層
+     * @param overlayLevels 上書きするResourceBundleの階層（いずれか1つ以上が存在すること）
+     * @return 最も優先度の高い階層のResourceBundle
+     */
+    static OverlayResourceBundle of(List<Locale> candidateLocales, List<ResourceBundle> baseLevels, List<ResourceBundle> overlayLevels) {
+        ResourceBundle chain = null;
+        ResourceBundle baseNext = null;
+        ResourceBundle overlayNext = null;
+        // 下位に上書きが無い間は、共有するResourceBundleの親リソースをそのまま使用する
+        boolean baseOnly = true;
+        for (int i = candidateLocales.size() - 1; i >= 0; i--) {
+            ResourceBundle base = baseLevels.get(i);
+            ResourceBundle overlay = overlayLevels.get(i);
+            if (overlay == null && (base == null || baseOnly)) {
+                if (base != null) {
+                    chain = base;
+                    baseNext = base;
+                }
+                continue;
+            }
+            Map<String, Object> delta = overlay == null
+                                        ? Collections.<String, Object>emptyMap()
+                                        : ownEntries(overlay, overlayNext);
+            chain = baseOnly
+                    ? new OverlayResourceBundle(candidateLocales.get(i), delta, null, null, base == null ? chain : base)
+                    : new OverlayResourceBundle(candidateLocales.get(i), delta, base, baseNext, chain);
+            if (base != null) {
+                baseNext = base;
+            }
+            if (overlay != null) {
+                overlayNext = overlay;
+            }
+            baseOnly = false;
+        }
+        if (chain instanceof OverlayResourceBundle == false) {
+            throw new IllegalArgumentException("no overlay bundle is specified.");
+        }
+        return (OverlayResourceBundle) chain;
+    }
+
+    /**
+     * 上書きしているキーの数を返却する.<br>
+     * 全ての階層で上書きするResourceBundleが保持するキーを数える.
+     *
+     * @return 上書きしているキーの数
+     */
+    public int getOverrideCount() {
+        Set<String> keys = new HashSet<>();
+        for (ResourceBundle bundle = this; bundle instanceof OverlayResourceBundle; bundle = ((OverlayResourceBundle) bundle).parent) {
+            keys.addAll(((OverlayResourceBundle) bundle).delta.keySet());
+        }
+        return keys.size();
+    }
+
+    /**
+     * この階層のロケールを返却する.
+     *
+     * @return ロケール
+     */
+    @Override
+    public Locale getLocale() {
+        return this.locale;
+    }
+
+    @Override
+    public Object handleGetObject(String key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        Object value = this.delta.get(key);
+        if (value != null || this.baseLevel == null) {
+            return value;
+        }
+        return ownValue(this.baseLevel, this.baseNext, key, true);
+    }
+
+    /**
+     * 参照回数を数えずに値（親リソースを含む）を取得する.<br>
+     * 共有するResourceBundleの値も{@link BundleUsageTracker#peek(java.util.ResourceBundle, java.lang.String)}と同じく参照回数に数えない.
+     *
+     * @param key キー
+     * @return 値. キーが存在しない場合はnull
+     */
+    Object peek(String key) {
+        Object value = this.delta.get(key);
+        if (value == null && this.baseLevel != null) {
+            value = ownValue(this.baseLevel, this.baseNext, key, false);
+        }
+        if (value == null && this.parent != null) {
+            value = BundleUsageTracker.peek(this.parent, key);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(String key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+        return this.delta.containsKey(key)
+               || (this.baseLevel != null && this.baseLevel.containsKey(key))
+               || (this.parent != null && this.parent.containsKey(key));
+    }
+
+    @Override
+    public Enumeration<String> getKeys() {
+        return Collections.enumeration(this.keySet());
+    }
+
+    @Override
+    protected Set<String> handleKeySet() {
+        if (this.baseLevel == null) {
+            return this.delta.keySet();
+        }
+        // 共有するResourceBundleの下位の階層のキーも含むが、いずれも親リソースから参照できるキーである
+        Set<String> keys = new HashSet<>(this.baseLevel.keySet());
+        keys.addAll(this.delta.keySet());
+        return keys;
+    }
+
+    /**
+     * ResourceBundle自身が保持する（親リソースから引き継いでいない）キーと値を返却する.
+     */
+    private static Map<String, Object> ownEntries(ResourceBundle bundle, ResourceBundle next) {
+        Map<String, Object> entries = new HashMap<>();
+        for (String key : bundle.keySet()) {
+            Object value = ownValue(bundle, next, key, false);
+            if (value != null) {
+                entries.put(key, value);
+            }
+        }
+        return Collections.unmodifiableMap(entries);
+    }
+
+    /**
+     * ResourceBundle自身が保持する値を返却する.<br>
+     * 自身の値のみを参照できないResourceBundleは、下位の階層と同一インスタンスの値を親リソースから引き継いだ値とみなす.
+     *
+     * @param bundle 対象のResourceBundle
+     * @param next 下位で最初に存在する階層のResourceBundle（存在しない場合はnull）
+     * @param key キー
+     * @param count アプリケーションの参照としてBundleUsageTrackerで数える場合はtrue
+     * @return ResourceBundle自身が保持する値. 保持していない場合はnull
+     */
+    private static Object ownValue(ResourceBundle bundle, ResourceBundle next, String key, boolean count) {
+        if (bundle instanceof BundleUsageTracker.TrackedResourceBundle) {
+            BundleUsageTracker.TrackedResourceBundle tracked = (BundleUsageTracker.TrackedResourceBundle) bundle;
+            return count ? tracked.handleGetObject(key) : tracked.peekOwn(key);
+        }
+        if (bundle instanceof PropertyResourceBundle) {
+            return ((PropertyResourceBundle) bundle).handleGetObject(key);
+        }
+        if (bundle instanceof MapResourceBundle) {
+            return ((MapResourceBundle) bundle).handleGetObject(key);
+        }
+        if (bundle instanceof XMLResourceBundle) {
+            return ((XMLResourceBundle) bundle).handleGetObject(key);
+        }
+        if (bundle instanceof ListResourceBundle) {
+            return ((ListResourceBundle) bundle).handleGetObject(key);
+        }
+        Object value = BundleUsageTracker.peek(bundle, key);
+        return value != null && next != null && BundleUsageTracker.peek(next, key) == value ? null : value;
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * サイズの大きいpropertiesを分割してForkJoinPoolで並列に解析するクラス.<br>
+ * バイト列のままでは分割位置がマルチバイト文字の途中となる場合がある（SJISは2バイト目に'\'(0x5C)を含む）ため、
+ * 先に全体を文字列へデコードしてから論理行（'\'による継続行を含めた1エントリ）の境界で分割する.<br>
+ * 分割した各範囲は{@link java.util.Properties#load(java.io.Reader)}で解析し、ファイル内の順番で結合する（同じキーは後勝ち）.
+ *
+ * @author Yamashita,Takahiro
+ */
+class ParallelPropertiesParser {
+
+    /* 分割する範囲の最小文字数（これより小さく分割してもタスクの生成コストが上回る） */
+    private static final int MIN_CHUNK_CHARS = 16 * 1024;
+
+    /* ワーカースレッド毎の分割数（範囲毎の解析時間のばらつきを吸収する） */
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelPropertiesParser() {
+    }
+
+    /**
+     * propertiesの内容を並列に解析する.
+     *
+     * @param text デコード済みのpropertiesの内容
+     * @param pool 解析に使用するForkJoinPool
+     * @return 解析したキーと値
+     * @throws IOException 解析時の例外
+     */
+    static Map<String, String> parse(String text, ForkJoinPool pool) throws IOException {
+        int chunkChars = Math.max(MIN_CHUNK_CHARS, text.length() / (pool.getParallelism() * CHUNKS_PER_THREAD));
+        List<Integer> boundaries = split(text, chunkChars);
+        try {
+            return pool.invoke(new ParseTask(text, boundaries, 0, boundaries.size() - 1));
+        }
+        catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * 論理行の先頭となる位置で分割する.<br>
+     * コメント行（行頭の空白を除いた先頭が'#'または'!'）は行末の'\'があっても継続しない.
+     * 継続行は行頭が'#'・'!'でもコメントとはならない.<br>
+     * 行末の連続した'\'が奇数個の場合のみ次の行へ継続する（偶数個はエスケープされた'\'）.
+     *
+     * @param text propertiesの内容
+     * @param chunkChars 分割する範囲の目安となる文字数
+     * @return 先頭（0）と末尾（文字数）を含む分割位置
+     */
+    static List<Integer> split(String text, int chunkChars) {
+        List<Integer> boundaries = new ArrayList<>();
+        boundaries.add(0);
+        int length = text.length();
+        int next = chunkChars;
+        int position = 0;
+        boolean continuation = false;
+        while (position < length) {
+            if (continuation == false && position >= next) {
+                boundaries.add(position);
+                next = position + chunkChars;
+            }
+            while (position < length && isWhiteSpace(text.charAt(position))) {
+                position++;
+            }
+            boolean comment = continuation == false
+                              && position < length
+                              && (text.charAt(position) == '#' || text.charAt(position) == '!');
+            boolean blank = position >= length || isLineTerminator(text.charAt(position));
+            int backslashes = 0;
+            while (position < length && isLineTerminator(text.charAt(position)) == false) {
+                backslashes = text.charAt(position) == '\\' ? backslashes + 1 : 0;
+                position++;
+            }
+            // 空行（継続行が空行の場合も含む）は、そこで論理行が終わる
+            continuation = comment == false && blank == false && (backslashes & 1) == 1;
+            if (position < length && text.charAt(position) == '\r') {
+                position++;
+            }
+            if (position < length && text.charAt(position) == '\n') {
+                position++;
+            }
+        }
+        boundaries.add(length);
+        return boundaries;
+    }
+
+    private static boolean isWhiteSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\f';
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\r' || c == '\n';
+    }
+
+    private static Map<String, String> load(String text, int from, int to) {
+        Properties properties = new Properties();
+        try {
+            properties.load(new StringReader(text.substring(from, to)));
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Map<String, String> entries = new HashMap<>(properties.size() * 4 / 3 + 1);
+        properties.forEach((key, value) -> entries.put((String) key, (String) value));
+        return entries;
+    }
+
+    /**
+     * 分割位置の範囲を二分しながら解析するタスク.<br>
+     * 前半の結果に後半の結果を上書きするので、ファイル内で後ろにあるキーの値が優先される.
+     */
+    private static class ParseTask extends RecursiveTask<Map<String, String>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String text;
+
+        private final List<Integer> boundaries;
+
+        private final int from;
+
+        private final int to;
+
+        ParseTask(String text, List<Integer> boundaries, int from, int to) {
+            this.text = text;
+            this.boundaries = boundaries;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Map<String, String> compute() {
+            if (this.to - this.from == 1) {
+                return load(this.text, this.boundaries.get(this.from), this.boundaries.get(this.to));
+            }
+            int middle = (this.from + this.to) >>> 1;
+            ParseTask latter = new ParseTask(this.text, this.boundaries, middle, this.to);
+            latter.fork();
+            Map<String, String> entries = new ParseTask(this.text, this.boundaries, this.from, middle).compute();
+            entries.putAll(latter.join());
+            return entries;
+        }
+    }
+}
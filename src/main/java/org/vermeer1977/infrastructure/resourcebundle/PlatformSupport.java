@@ -0,0 +1,127 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.AccessController;
+import java.security.PrivilegedActionException;
+import java.security.PrivilegedExceptionAction;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 実行するJavaのバージョンにより実装を切り替える処理.<br>
+ * 本クラスはJava8向けの実装で、Java21以降はマルチリリースJARの{@code META-INF/versions/21}に格納した実装（src/main/java21）を使用する.<br>
+ * 両方の実装で、メソッドのシグネチャを同じにしておくこと.
+ *
+ * @author Yamashita,Takahiro
+ */
+final class PlatformSupport {
+
+    /* 本クラスはJava9からJava20（およびマルチリリースJARとして読み込まれない場合のJava21以降）でも使用される */
+    private static final boolean JAVA8 = System.getProperty("java.specification.version").startsWith("1.");
+
+    /* Java9以降のPropertyResourceBundleと同じく、クラスの初期化時に一度だけ参照する */
+    private static final String PROPERTIES_ENCODING
+            = System.getProperty("java.util.PropertyResourceBundle.encoding", "").toUpperCase(Locale.ROOT);
+
+    private PlatformSupport() {
+    }
+
+    /**
+     * クラスローダーからリソースのInputStreamを取得する.<br>
+     * セキュリティマネージャーが有効な場合に備えて、特権ブロックで取得する.
+     *
+     * @param loader クラスローダー
+     * @param resourceName リソース名
+     * @param reload 再ロードの場合はtrue（URLConnectionのキャッシュを使用しない）
+     * @return リソースのInputStream. リソースが存在しない場合はnull
+     * @throws IOException リソースの取得時に発生した例外
+     */
+    static InputStream openStream(ClassLoader loader, String resourceName, boolean reload) throws IOException {
+        try {
+            return AccessController.doPrivileged((PrivilegedExceptionAction<InputStream>) () -> {
+                if (reload == false) {
+                    return loader.getResourceAsStream(resourceName);
+                }
+                URL url = loader.getResource(resourceName);
+                if (url == null) {
+                    return null;
+                }
+                URLConnection connection = url.openConnection();
+                // Disable caches to get fresh data for reloading.
+                connection.setUseCaches(false);
+                return connection.getInputStream();
+            });
+        }
+        catch (PrivilegedActionException e) {
+            throw (IOException) e.getException();
+        }
+    }
+
+    /**
+     * propertiesの内容を、実行環境の{@link java.util.PropertyResourceBundle#PropertyResourceBundle(java.io.InputStream)}と同じ文字コードで文字列にする.<br>
+     * Java8はISO-8859-1、Java9以降はUTF-8として読み込み、UTF-8として不正なバイト列を含む場合はISO-8859-1で読み込み直す
+     * （システムプロパティ{@code java.util.PropertyResourceBundle.encoding}で指定した場合はその文字コードのみで読み込む）.
+     *
+     * @param content propertiesの内容
+     * @return 文字列にしたpropertiesの内容
+     * @throws CharacterCodingException UTF-8のみで読み込む指定で、UTF-8として不正なバイト列を含む場合
+     */
+    static String decodeProperties(byte[] content) throws CharacterCodingException {
+        if (JAVA8) {
+            return new String(content, StandardCharsets.ISO_8859_1);
+        }
+        return decodeUtf8OrIso(content);
+    }
+
+    private static String decodeUtf8OrIso(byte[] content) throws CharacterCodingException {
+        if ("ISO-8859-1".equals(PROPERTIES_ENCODING)) {
+            return new String(content, StandardCharsets.ISO_8859_1);
+        }
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(content))
+                    .toString();
+        }
+        catch (CharacterCodingException ex) {
+            if ("UTF-8".equals(PROPERTIES_ENCODING)) {
+                throw ex;
+            }
+            return new String(content, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * バックグラウンド処理（再ロードの通知など）に使用するExecutorを返却する.
+     *
+     * @return {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     */
+    static Executor defaultExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+import lombok.Builder;
+
+/**
+ * テナント毎に一部のキーを上書きしたResourceBundleを取得するクラス.<br>
+ * 共有するResourceBundle（baseName）はCustomControlで一度だけ読み込み、テナント毎のResourceBundleは上書きするキーのみを保持する.<br>
+ * テナントの上書きは{@code <baseName>-<テナント>}のリソースとして用意する（例：{@code messages-acme.properties}、{@code messages-acme_ja_JP.properties}）.<br>
+ * 上書きは候補ロケールの階層毎に重ねるので、テナントのルートの上書きが共有するja_JPの値を隠すことは無い.<br>
+ * 共有するResourceBundleとテナントのリソースはそれぞれ独立してキャッシュ・再ロードされ、いずれかが再ロードされた場合のみ作り直す.<br>
+ * テナントのリソースが存在しない場合は共有するResourceBundleをそのまま返却する.<br>
+ * テナントは英数字で始まる英数字・アンダースコア・ハイフンのみ指定できる（リソース名の階層を変えられないようにする）.<br>
+ * <br>
+ * 実装例
+ * <pre>
+ * {@code
+ * TenantBundles tenants = TenantBundles.builder()
+ *  .control(CustomControl.builder().charCode("UTF-8").timeToLive(60000L).build())
+ *  .baseName("messages")
+ *  .build();
+ *
+ * ResourceBundle bundle = tenants.getBundle("acme", Locale.JAPAN);
+ * }
+ * </pre>
+ *
+ * @author Yamashita,Takahiro
+ */
+@Builder
+public class TenantBundles {
+
+    /**
+     * テナントのResourceBundleと存在しなかったリソースの記録を保持するデフォルトの上限件数
+     */
+    public static final int DEFAULT_MAX_CACHE_SIZE = 1024;
+
+    private static final Pattern TENANT_PATTERN = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]*");
+
+    private final CustomControl control;
+
+    private final String baseName;
+
+    private final Integer maxCacheSize;
+
+    private final ConcurrentMap<BundleKey, Overlay> overlays = new ConcurrentHashMap<>();
+
+    /* テナントのリソースが存在しなかった時刻（例外による判定を繰り返さないようにする） */
+    private final ConcurrentMap<BundleKey, Long> missingOverlays = new ConcurrentHashMap<>();
+
+    /**
+     * テナントのResourceBundleを取得する.
+     *
+     * @param tenant テナント
+     * @param locale ロケール
+     * @return テナントの上書きを重ねたResourceBundle. 上書きが無い場合は共有するResourceBundle
+     * @throws IllegalArgumentException テナントに使用できない文字が含まれる場合
+     */
+    public ResourceBundle getBundle(String tenant, Locale locale) {
+        if (tenant == null || TENANT_PATTERN.matcher(tenant).matches() == false) {
+            throw new IllegalArgumentException("invalid tenant: " + tenant);
+        }
+        ResourceBundle base = this.load(this.baseName, locale);
+        String overlayBaseName = this.baseName + "-" + tenant;
+        BundleKey key = new BundleKey(overlayBaseName, locale);
+        ResourceBundle overlay = this.loadIfExists(key);
+        if (overlay == null) {
+            this.overlays.remove(key);
+            return base;
+        }
+        // 下位の階層が再ロードされた場合は、JDKが上位の階層のキャッシュも期限切れとして読み込み直すので、
+        // 最上位の階層が同一インスタンスであれば各階層を取得し直さずにそのまま使用できる
+        Overlay current = this.overlays.get(key);
+        if (current != null && current.isOverlayOf(base, overlay)) {
+            return current.bundle;
+        }
+        List<Locale> candidateLocales = this.getCandidateLocales(locale);
+        List<ResourceBundle> baseLevels = this.loadLevels(this.baseName, candidateLocales);
+        List<ResourceBundle> overlayLevels = this.loadLevels(overlayBaseName, candidateLocales);
+        Overlay created = new Overlay(base, overlay, OverlayResourceBundle.of(candidateLocales, baseLevels, overlayLevels));
+        this.putBounded(this.overlays, key, created);
+        return created.bundle;
+    }
+
+    /**
+     * 保持しているテナントのResourceBundleと、存在しなかったテナントの記録を破棄する.
+     */
+    public void clear() {
+        this.overlays.clear();
+        this.missingOverlays.clear();
+    }
+
+    /**
+     * 候補ロケールの階層毎に、そのロケールのResourceBundleを取得する.
+     *
+     * @return 候補ロケール順のResourceBundle. 存在しない階層はnull
+     */
+    private List<ResourceBundle> loadLevels(String name, List<Locale> candidateLocales) {
+        List<ResourceBundle> levels = new ArrayList<>(Collections.nCopies(candidateLocales.size(), null));
+        for (int i = 0; i < candidateLocales.size(); i++) {
+            ResourceBundle bundle = this.loadIfExists(new BundleKey(name, candidateLocales.get(i)));
+            if (bundle == null) {
+                break;
+            }
+            // 存在しない階層は下位の階層のResourceBundleが返却されるので、その階層まで読み飛ばす
+            int level = candidateLocales.indexOf(bundle.getLocale());
+            if (level < i) {
+                break;
+            }
+            levels.set(level, bundle);
+            i = level;
+        }
+        return levels;
+    }
+
+    private ResourceBundle loadIfExists(BundleKey key) {
+        Long missingTime = this.missingOverlays.get(key);
+        if (missingTime != null && this.isMissingValid(key, missingTime)) {
+            return null;
+        }
+        try {
+            ResourceBundle bundle = this.load(key.getBaseName(), key.getLocale());
+            this.missingOverlays.remove(key);
+            return bundle;
+        }
+        catch (MissingResourceException ex) {
+            this.putBounded(this.missingOverlays, key, System.currentTimeMillis());
+            return null;
+        }
+    }
+
+    private <V> void putBounded(ConcurrentMap<BundleKey, V> cache, BundleKey key, V value) {
+        int maxSize = this.maxCacheSize == null ? DEFAULT_MAX_CACHE_SIZE : this.maxCacheSize;
+        if (cache.size() >= maxSize && cache.containsKey(key) == false) {
+            // 上限を超えた場合は全て破棄して、改めて使用されるテナントを保持し直す
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
+    /**
+     * 存在しなかったテナントのリソースを、CustomControlのキャッシュの有効期限に従って再確認する.
+     */
+    private boolean isMissingValid(BundleKey key, long missingTime) {
+        long timeToLive = this.control == null
+                          ? ResourceBundle.Control.TTL_NO_EXPIRATION_CONTROL
+                          : this.control.getTimeToLive(key.getBaseName(), key.getLocale());
+        if (timeToLive == ResourceBundle.Control.TTL_NO_EXPIRATION_CONTROL) {
+            return true;
+        }
+        if (timeToLive == ResourceBundle.Control.TTL_DONT_CACHE) {
+            return false;
+        }
+        return System.currentTimeMillis() < missingTime + timeToLive;
+    }
+
+    private List<Locale> getCandidateLocales(Locale locale) {
+        return this.control == null
+               ? ResourceBundle.Control.getControl(ResourceBundle.Control.FORMAT_DEFAULT).getCandidateLocales(this.baseName, locale)
+               : this.control.getCandidateLocales(this.baseName, locale);
+    }
+
+    private ResourceBundle load(String name, Locale locale) {
+        return this.control == null
+               ? ResourceBundle.getBundle(name, locale)
+               : ResourceBundle.getBundle(name, locale, this.control);
+    }
+
+    /**
+     * 階層毎に重ねたResourceBundleと、生成元の最上位の階層のResourceBundle.
+     */
+    private static class Overlay {
+
+        private final ResourceBundle base;
+
+        private final ResourceBundle overlay;
+
+        private final OverlayResourceBundle bundle;
+
+        Overlay(ResourceBundle base, ResourceBundle overlay, OverlayResourceBundle bundle) {
+            this.base = base;
+            this.overlay = overlay;
+            this.bundle = bundle;
+        }
+
+        /**
+         * 生成元の最上位の階層と同一インスタンスであるか判定する.<br>
+         * いずれかが再ロードされている場合は作り直す必要がある.
+         */
+        boolean isOverlayOf(ResourceBundle base, ResourceBundle overlay) {
+            return this.base == base && this.overlay == overlay;
+        }
+    }
+}
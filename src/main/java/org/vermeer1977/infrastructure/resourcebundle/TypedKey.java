@@ -0,0 +1,40 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+/**
+ * IndexedBundleの値を配列の添字で参照するためのキー.<br>
+ * {@link KeyIndex#toEnumSource(java.lang.String, java.lang.String)}で生成したenumが実装する.
+ *
+ * @author Yamashita,Takahiro
+ */
+public interface TypedKey {
+
+    /**
+     * KeyIndexにおけるキーの位置を返却する.
+     *
+     * @return キーの位置
+     */
+    int index();
+
+    /**
+     * リソースのキーを返却する.
+     *
+     * @return リソースのキー
+     */
+    String key();
+}
@@ -0,0 +1,64 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * zipアーカイブをリソースの取得元とするBundleSource.<br>
+ * baseNameをアーカイブ内のパスとして扱い、アーカイブを一度開いて全ロケールのエントリを取得する.<br>
+ * アーカイブは取得の都度開き直すので、アーカイブを差し替えた場合もリロード時に反映される.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class ZipBundleSource implements BundleSource {
+
+    private final Path archive;
+
+    /**
+     * 取得元のzipアーカイブを指定するコンストラクタ.
+     *
+     * @param archive 取得元のzipアーカイブ
+     */
+    public ZipBundleSource(Path archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    public Map<String, byte[]> fetchAll(String baseName, String suffix) throws IOException {
+        Map<String, byte[]> resources = new HashMap<>();
+        try (ZipFile zipFile = new ZipFile(this.archive.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (entry.isDirectory() == false && BundleSource.isVariantOf(entry.getName(), baseName, suffix)) {
+                    try (InputStream stream = zipFile.getInputStream(entry)) {
+                        resources.put(entry.getName(), CustomControl.readAllBytes(stream));
+                    }
+                }
+            }
+        }
+        return resources;
+    }
+}
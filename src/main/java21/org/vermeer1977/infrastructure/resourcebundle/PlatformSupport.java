@@ -0,0 +1,115 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 実行するJavaのバージョンにより実装を切り替える処理.<br>
+ * 本クラスはJava21向けの実装で、マルチリリースJARの{@code META-INF/versions/21}に格納する.
+ * Java8向けの実装（src/main/java）とメソッドのシグネチャを同じにしておくこと.
+ *
+ * @author Yamashita,Takahiro
+ */
+final class PlatformSupport {
+
+    /* タスク毎に仮想スレッドを生成するので、プールの大きさやシャットダウンを管理する必要はない */
+    private static final ExecutorService VIRTUAL_THREADS = Executors.newVirtualThreadPerTaskExecutor();
+
+    /* PropertyResourceBundleと同じく、クラスの初期化時に一度だけ参照する */
+    private static final String PROPERTIES_ENCODING
+            = System.getProperty("java.util.PropertyResourceBundle.encoding", "").toUpperCase(Locale.ROOT);
+
+    private PlatformSupport() {
+    }
+
+    /**
+     * クラスローダーからリソースのInputStreamを取得する.<br>
+     * セキュリティマネージャーは廃止予定のため、特権ブロックを使用せずに取得する.
+     *
+     * @param loader クラスローダー
+     * @param resourceName リソース名
+     * @param reload 再ロードの場合はtrue（URLConnectionのキャッシュを使用しない）
+     * @return リソースのInputStream. リソースが存在しない場合はnull
+     * @throws IOException リソースの取得時に発生した例外
+     */
+    static InputStream openStream(ClassLoader loader, String resourceName, boolean reload) throws IOException {
+        if (reload == false) {
+            return loader.getResourceAsStream(resourceName);
+        }
+        URL url = loader.getResource(resourceName);
+        if (url == null) {
+            return null;
+        }
+        URLConnection connection = url.openConnection();
+        // Disable caches to get fresh data for reloading.
+        connection.setUseCaches(false);
+        return connection.getInputStream();
+    }
+
+    /**
+     * propertiesの内容を、{@link java.util.PropertyResourceBundle#PropertyResourceBundle(java.io.InputStream)}と同じ文字コードで文字列にする.<br>
+     * UTF-8として読み込み、UTF-8として不正なバイト列を含む場合はISO-8859-1で読み込み直す
+     * （システムプロパティ{@code java.util.PropertyResourceBundle.encoding}で指定した場合はその文字コードのみで読み込む）.
+     *
+     * @param content propertiesの内容
+     * @return 文字列にしたpropertiesの内容
+     * @throws CharacterCodingException UTF-8のみで読み込む指定で、UTF-8として不正なバイト列を含む場合
+     */
+    static String decodeProperties(byte[] content) throws CharacterCodingException {
+        return decodeUtf8OrIso(content);
+    }
+
+    private static String decodeUtf8OrIso(byte[] content) throws CharacterCodingException {
+        if ("ISO-8859-1".equals(PROPERTIES_ENCODING)) {
+            return new String(content, StandardCharsets.ISO_8859_1);
+        }
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(content))
+                    .toString();
+        }
+        catch (CharacterCodingException ex) {
+            if ("UTF-8".equals(PROPERTIES_ENCODING)) {
+                throw ex;
+            }
+            return new String(content, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * バックグラウンド処理（再ロードの通知など）に使用するExecutorを返却する.
+     *
+     * @return 仮想スレッドで実行するExecutor
+     */
+    static Executor defaultExecutor() {
+        return VIRTUAL_THREADS;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleDiagnosticsTest {
+
+    private final BundleDiagnostics diagnostics = new BundleDiagnostics();
+
+    private final CustomControl control = CustomControl.builder()
+            .charCode("UTF-8")
+            .diagnostics(this.diagnostics)
+            .build();
+
+    @Before
+    public void setUp() {
+        ResourceBundle.clearCache();
+    }
+
+    @Test
+    public void ロケール毎に自身が保持するキーと値を推計する() {
+        ResourceBundle.getBundle("resourcebundle.test.footprint", Locale.JAPAN, this.control);
+        List<BundleFootprint> footprints = this.diagnostics.report().getFootprints();
+
+        assertThat(footprints.size(), is(2));
+        BundleFootprint root = footprints.get(0);
+        assertThat(root.getLocale(), is(""));
+        assertThat(root.getFormat(), is("java.properties"));
+        assertThat(root.getKeyCount(), is(2));
+        assertThat(root.getKeyChars(), is((long) "shared".length() + "label".length()));
+        assertThat(root.getValueChars(), is((long) "same value".length() + "Label".length()));
+        assertThat(root.getDuplicatedBytes(), is(0L));
+        assertThat(root.getEstimatedBytes(), is(root.getKeyBytes() + root.getValueBytes() + root.getMapOverheadBytes()));
+
+        BundleFootprint japan = footprints.get(1);
+        assertThat(japan.getLocale(), is("ja_JP"));
+        assertThat(japan.getValueChars(), is((long) "same value".length() + "ラベル".length()));
+        assertTrue(japan.getDuplicatedBytes() > japan.getKeyBytes());
+        assertTrue(japan.getDuplicatedBytes() < japan.getKeyBytes() + japan.getValueBytes());
+    }
+
+    @Test
+    public void 推計バイト数の降順に並び替える() {
+        ResourceBundle.getBundle("resourcebundle.test.footprint", Locale.JAPAN, this.control);
+        ResourceBundle.getBundle("resourcebundle.test.message", Locale.ROOT, this.control);
+        FootprintReport report = this.diagnostics.report().sorted(FootprintReport.BY_ESTIMATED_BYTES);
+
+        List<BundleFootprint> footprints = report.getFootprints();
+        assertThat(footprints.size(), is(3));
+        for (int i = 1; i < footprints.size(); i++) {
+            assertTrue(footprints.get(i - 1).getEstimatedBytes() >= footprints.get(i).getEstimatedBytes());
+        }
+        assertThat(report.getTotalEstimatedBytes(),
+                   is(footprints.stream().mapToLong(BundleFootprint::getEstimatedBytes).sum()));
+        assertTrue(report.toString().contains("resourcebundle.test.message"));
+    }
+
+    @Test
+    public void JMXで参照する() throws Exception {
+        ResourceBundle.getBundle("resourcebundle.test.footprint", Locale.JAPAN, this.control);
+        ObjectName name = this.diagnostics.registerMBean("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertThat(server.getAttribute(name, "TotalEstimatedBytes"), is(this.diagnostics.getTotalEstimatedBytes()));
+            CompositeData[] footprints = (CompositeData[]) server.getAttribute(name, "Footprints");
+            assertThat(footprints.length, is(2));
+            assertThat(footprints[0].get("baseName"), is("resourcebundle.test.footprint"));
+        }
+        finally {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleExporterTest {
+
+    private final BundleExporter exporter = BundleExporter.builder()
+            .control(CustomControl.builder().charCode("UTF-8").build())
+            .build();
+
+    @Test
+    public void 親リソースまで解決してJSONに出力する() {
+        BundleExport export = this.exporter.export("resourcebundle.test.export", Locale.JAPAN);
+        assertThat(toText(export.getJson().getBuffer()),
+                   is("{\"footer\":\"default\",\"menu.edit\":\"編集\",\"menu.file\":\"ファイル\",\"title\":\"エクスポート\"}"));
+        assertThat(export.getJson().getContentType(), is(BundleExport.CONTENT_TYPE_JSON));
+    }
+
+    @Test
+    public void properties形式で出力した内容を読み戻せる() throws IOException {
+        BundleExport export = this.exporter.export("resourcebundle.test.export", Locale.ROOT);
+        Properties properties = new Properties();
+        properties.load(new InputStreamReader(
+                new ByteArrayInputStream(toBytes(export.getProperties().getBuffer())), StandardCharsets.UTF_8));
+        assertThat(properties.getProperty("title"), is("Export \"test\""));
+        assertThat(properties.size(), is(4));
+    }
+
+    @Test
+    public void 接頭辞で絞り込む() {
+        BundleExport export = this.exporter.export("resourcebundle.test.export", Locale.JAPAN);
+        BundleExport menu = export.filter("menu.");
+        assertThat(menu.getKeys(), is(Arrays.asList("menu.edit", "menu.file")));
+        assertThat(toText(menu.getJson().getBuffer()), is("{\"menu.edit\":\"編集\",\"menu.file\":\"ファイル\"}"));
+        assertThat(export.filter("menu."), is(sameInstance(menu)));
+        assertThat(export.filter("none").getKeys().isEmpty(), is(true));
+    }
+
+    @Test
+    public void リロードされていなければ同じエクスポート結果を返却する() {
+        BundleExport first = this.exporter.export("resourcebundle.test.export", Locale.JAPAN);
+        BundleExport second = this.exporter.export("resourcebundle.test.export", Locale.JAPAN);
+        assertThat(second, is(sameInstance(first)));
+        assertThat(second.getJson().getETag(), is(first.getJson().getETag()));
+    }
+
+    @Test
+    public void バッファは呼び出し毎に独立した位置を持つ() {
+        ExportedContent content = this.exporter.export("resourcebundle.test.export", Locale.JAPAN).getJson();
+        ByteBuffer buffer = content.getBuffer();
+        buffer.position(buffer.limit());
+        assertThat(content.getBuffer().remaining(), is(content.getLength()));
+        assertThat(buffer.isReadOnly(), is(true));
+    }
+
+    @Test
+    public void リロードされた場合はエクスポート結果を作り直す() {
+        Map<String, String> contents = new HashMap<>();
+        contents.put("exporter/reload.properties", "title=v1");
+        BundleSource source = (baseName, suffix) -> {
+            Map<String, byte[]> batch = new HashMap<>();
+            contents.forEach((name, text) -> batch.put(name, text.getBytes(StandardCharsets.UTF_8)));
+            return batch;
+        };
+        BundleExporter reloading = BundleExporter.builder()
+                .control(CustomControl.builder()
+                        .formats(CustomControl.FORMAT_PROPERTIES)
+                        .source(source)
+                        .timeToLive(0L)
+                        .build())
+                .build();
+
+        BundleExport first = reloading.export("exporter.reload", Locale.ROOT);
+        assertThat(toText(first.getJson().getBuffer()), is("{\"title\":\"v1\"}"));
+
+        contents.put("exporter/reload.properties", "title=v2");
+        BundleExport second = reloading.export("exporter.reload", Locale.ROOT);
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(toText(second.getJson().getBuffer()), is("{\"title\":\"v2\"}"));
+        assertThat(second.getJson().getETag(), is(not(first.getJson().getETag())));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static String toText(ByteBuffer buffer) {
+        return new String(toBytes(buffer), StandardCharsets.UTF_8);
+    }
+}
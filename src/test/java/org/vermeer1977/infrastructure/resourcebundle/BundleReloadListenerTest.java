@@ -0,0 +1,181 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleReloadListenerTest {
+
+    private volatile String content = "kept=same\nchanged=before\nremoved=old";
+
+    private final BundleSource source = (baseName, suffix) -> Collections.singletonMap(
+            "reload/listener.properties", this.content.getBytes(StandardCharsets.UTF_8));
+
+    /* ResourceBundleのキャッシュをテスト毎に分けるためのクラスローダー */
+    private final ClassLoader loader = new URLClassLoader(new URL[0], null);
+
+    @Test
+    public void 再ロードで追加_変更_削除されたキーを通知する() {
+        List<BundleReloadEvent> events = new ArrayList<>();
+        CustomControl control = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(this.source)
+                .timeToLive(0L)
+                .reloadListener(events::add)
+                .reloadExecutor(Runnable::run)
+                .build();
+
+        assertThat(this.getBundle(control).getString("changed"), is("before"));
+        assertThat(events.isEmpty(), is(true));
+
+        this.content = "kept=same\nchanged=after\nadded=new";
+        assertThat(this.getBundle(control).getString("changed"), is("after"));
+
+        assertThat(events.size(), is(1));
+        BundleReloadEvent event = events.get(0);
+        assertThat(event.getBaseName(), is("reload.listener"));
+        assertThat(event.getLocale(), is(Locale.ROOT));
+        assertThat(event.getFormat(), is("java.properties"));
+        assertThat(event.getAddedKeys(), is(set("added")));
+        assertThat(event.getChangedKeys(), is(set("changed")));
+        assertThat(event.getRemovedKeys(), is(set("removed")));
+    }
+
+    @Test
+    public void 変更が無い再ロードは通知しない() {
+        List<BundleReloadEvent> events = new ArrayList<>();
+        CustomControl control = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(this.source)
+                .timeToLive(0L)
+                .reloadListener(events::add)
+                .reloadExecutor(Runnable::run)
+                .build();
+
+        this.getBundle(control);
+        this.getBundle(control);
+        this.getBundle(control);
+        assertThat(events.isEmpty(), is(true));
+    }
+
+    @Test
+    public void 指定が無い場合は共通のスレッドプールで非同期に通知する() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        BundleReloadListener listener = event -> {
+            threads.add(Thread.currentThread());
+            latch.countDown();
+        };
+        CustomControl control = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(this.source)
+                .timeToLive(0L)
+                .reloadListener(listener)
+                .reloadListener(listener)
+                .build();
+
+        this.getBundle(control);
+        this.content = "kept=changed";
+        this.getBundle(control);
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertThat(threads.contains(Thread.currentThread()), is(false));
+    }
+
+    @Test
+    public void 同じCustomControlを使用するClassLoader毎に比較する() {
+        List<BundleReloadEvent> events = new ArrayList<>();
+        CustomControl control = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(this.source)
+                .timeToLive(0L)
+                .reloadListener(events::add)
+                .reloadExecutor(Runnable::run)
+                .build();
+        ClassLoader otherLoader = new URLClassLoader(new URL[0], null);
+
+        this.content = "first=1";
+        ResourceBundle.getBundle("reload.listener", Locale.ROOT, otherLoader, control);
+        this.getBundle(control);
+        this.content = "second=2";
+        ResourceBundle.getBundle("reload.listener", Locale.ROOT, otherLoader, control);
+        assertThat(events.size(), is(1));
+
+        // 他のClassLoaderの再ロード結果ではなく、自身の再ロード前と比較する
+        assertThat(this.getBundle(control).getString("second"), is("2"));
+        assertThat(events.size(), is(2));
+        assertThat(events.get(1).getAddedKeys(), is(set("second")));
+        assertThat(events.get(1).getRemovedKeys(), is(set("first")));
+    }
+
+    @Test
+    public void 再ロードでリソースが削除された場合は全てのキーを削除として通知する() {
+        List<BundleReloadEvent> events = new ArrayList<>();
+        CustomControl control = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source((baseName, suffix) -> this.content == null
+                                              ? Collections.<String, byte[]>emptyMap()
+                                              : this.source.fetchAll(baseName, suffix))
+                .timeToLive(0L)
+                .reloadListener(events::add)
+                .reloadExecutor(Runnable::run)
+                .build();
+
+        this.getBundle(control);
+        this.content = null;
+        try {
+            this.getBundle(control);
+            fail();
+        } catch (MissingResourceException ex) {
+            // リソースが存在しない
+        }
+
+        assertThat(events.size(), is(1));
+        assertThat(events.get(0).getAddedKeys(), is(set()));
+        assertThat(events.get(0).getChangedKeys(), is(set()));
+        assertThat(events.get(0).getRemovedKeys(), is(set("kept", "changed", "removed")));
+    }
+
+    private ResourceBundle getBundle(CustomControl control) {
+        return ResourceBundle.getBundle("reload.listener", Locale.ROOT, this.loader, control);
+    }
+
+    private static HashSet<String> set(String... keys) {
+        return new HashSet<>(Arrays.asList(keys));
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Locale;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        ResourceBundle.clearCache();
+    }
+
+    @Test
+    public void 初回は解析してスナップショットを保存し_次回はスナップショットから復元する() {
+        CustomControl control = CustomControl.builder()
+                .charCode("UTF-8")
+                .snapshotDirectory(this.folder.getRoot().toPath())
+                .build();
+
+        ResourceBundle parsed = ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, control);
+        assertThat(parsed, is(instanceOf(PropertyResourceBundle.class)));
+        assertThat(this.folder.getRoot().list().length, is(1));
+
+        ResourceBundle.clearCache();
+        ResourceBundle restored = ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, control);
+        assertThat(restored, is(instanceOf(MapResourceBundle.class)));
+        assertThat(restored.getString("greeting"), is("こんにちは"));
+        assertThat(restored.getString("farewell"), is("さようなら"));
+    }
+
+    @Test
+    public void 文字コードが異なる場合はスナップショットを共有しない() {
+        ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, CustomControl.builder()
+                                 .charCode("UTF-8")
+                                 .snapshotDirectory(this.folder.getRoot().toPath())
+                                 .build());
+        ResourceBundle.clearCache();
+        ResourceBundle bundle = ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, CustomControl.builder()
+                                                         .charCode("SJIS")
+                                                         .snapshotDirectory(this.folder.getRoot().toPath())
+                                                         .build());
+        assertThat(bundle, is(instanceOf(PropertyResourceBundle.class)));
+        assertThat(this.folder.getRoot().list().length, is(2));
+    }
+
+    @Test
+    public void 破損したスナップショットは使用せずに解析する() throws IOException {
+        CustomControl control = CustomControl.builder()
+                .charCode("UTF-8")
+                .snapshotDirectory(this.folder.getRoot().toPath())
+                .build();
+        ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, control);
+        for (File file : this.folder.getRoot().listFiles()) {
+            Files.write(file.toPath(), "broken".getBytes(StandardCharsets.UTF_8));
+        }
+
+        ResourceBundle.clearCache();
+        ResourceBundle bundle = ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, control);
+        assertThat(bundle, is(instanceOf(PropertyResourceBundle.class)));
+        assertThat(bundle.getString("greeting"), is("こんにちは"));
+    }
+
+    @Test
+    public void xmlのスナップショットから復元する() {
+        CustomControl control = CustomControl.builder()
+                .formats(CustomControl.FORMAT_XML)
+                .snapshotDirectory(this.folder.getRoot().toPath())
+                .build();
+        ResourceBundle.getBundle("resourcebundle.test.SJIS", Locale.ROOT, control);
+
+        ResourceBundle.clearCache();
+        ResourceBundle restored = ResourceBundle.getBundle("resourcebundle.test.SJIS", Locale.ROOT, control);
+        assertThat(restored, is(instanceOf(MapResourceBundle.class)));
+        assertThat(restored.getString("sjis.xml"), is("XML読み込み(SJIS)"));
+    }
+    @Test
+    public void リソースが変更された場合はスナップショットを使用しない() throws IOException {
+        File resources = this.folder.newFolder("resources");
+        Path resource = Files.createDirectories(resources.toPath().resolve("snapshot")).resolve("changed.properties");
+        Files.write(resource, "greeting=v1".getBytes(StandardCharsets.UTF_8));
+        ClassLoader loader = new URLClassLoader(new URL[]{resources.toURI().toURL()}, null);
+        CustomControl control = CustomControl.builder()
+                .charCode("UTF-8")
+                .snapshotDirectory(this.folder.newFolder("snapshots").toPath())
+                .build();
+        assertThat(ResourceBundle.getBundle("snapshot.changed", Locale.ROOT, loader, control).getString("greeting"), is("v1"));
+
+        // サイズが同じでも更新日時で変更を判定する
+        FileTime modified = Files.getLastModifiedTime(resource);
+        Files.write(resource, "greeting=v2".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(resource, FileTime.fromMillis(modified.toMillis() + 2000L));
+        ResourceBundle.clearCache(loader);
+        ResourceBundle bundle = ResourceBundle.getBundle("snapshot.changed", Locale.ROOT, loader, control);
+        assertThat(bundle, is(instanceOf(PropertyResourceBundle.class)));
+        assertThat(bundle.getString("greeting"), is("v2"));
+    }
+
+    @Test
+    public void 文字コードの指定が無い場合は既定の文字コードが異なる実行環境のスナップショットを使用しない() {
+        CustomControl control = CustomControl.builder()
+                .snapshotDirectory(this.folder.getRoot().toPath())
+                .build();
+        ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, control);
+
+        String property = "java.util.PropertyResourceBundle.encoding";
+        String original = System.getProperty(property);
+        System.setProperty(property, "ISO-8859-1");
+        try {
+            ResourceBundle.clearCache();
+            ResourceBundle bundle = ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, control);
+            assertThat(bundle, is(instanceOf(PropertyResourceBundle.class)));
+            assertThat(this.folder.getRoot().list().length, is(2));
+        }
+        finally {
+            if (original == null) {
+                System.clearProperty(property);
+            }
+            else {
+                System.setProperty(property, original);
+            }
+        }
+    }
+
+    @Test
+    public void 様々な文字を解析した場合と同じ値に復元する() throws IOException {
+        File resources = this.folder.newFolder("resources");
+        Path resource = Files.createDirectories(resources.toPath().resolve("snapshot")).resolve("chars.properties");
+        Files.write(resource, "value=a\\u0000\\u00e9\\u3042\\uD83D\\uDE00\\uDFFFz".getBytes(StandardCharsets.ISO_8859_1));
+        ClassLoader loader = new URLClassLoader(new URL[]{resources.toURI().toURL()}, null);
+        CustomControl control = CustomControl.builder()
+                .snapshotDirectory(this.folder.newFolder("snapshots").toPath())
+                .build();
+        String parsed = ResourceBundle.getBundle("snapshot.chars", Locale.ROOT, loader, control).getString("value");
+        assertThat(parsed, is("a\u0000\u00e9\u3042\uD83D\uDE00\uDFFFz"));
+
+        ResourceBundle.clearCache(loader);
+        ResourceBundle restored = ResourceBundle.getBundle("snapshot.chars", Locale.ROOT, loader, control);
+        assertThat(restored, is(instanceOf(MapResourceBundle.class)));
+        assertThat(restored.getString("value"), is(parsed));
+    }
+
+    @Test
+    public void 単独のサロゲートも解析した場合と同じ値に復元する() throws IOException {
+        File resources = this.folder.newFolder("resources");
+        Path resource = Files.createDirectories(resources.toPath().resolve("snapshot")).resolve("surrogate.properties");
+        Files.write(resource, "lone=\\uD800x".getBytes(StandardCharsets.ISO_8859_1));
+        ClassLoader loader = new URLClassLoader(new URL[]{resources.toURI().toURL()}, null);
+        CustomControl control = CustomControl.builder()
+                .snapshotDirectory(this.folder.newFolder("snapshots").toPath())
+                .build();
+        String parsed = ResourceBundle.getBundle("snapshot.surrogate", Locale.ROOT, loader, control).getString("lone");
+        assertThat(parsed, is(new String(new char[]{0xD800, 'x'})));
+
+        ResourceBundle.clearCache(loader);
+        ResourceBundle restored = ResourceBundle.getBundle("snapshot.surrogate", Locale.ROOT, loader, control);
+        assertThat(restored, is(instanceOf(MapResourceBundle.class)));
+        assertThat(restored.getString("lone"), is(parsed));
+    }
+
+    @Test
+    public void 長さが破損したスナップショットは使用せずに解析する() throws IOException {
+        CustomControl control = CustomControl.builder()
+                .charCode("UTF-8")
+                .snapshotDirectory(this.folder.getRoot().toPath())
+                .build();
+        ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, control);
+        for (File file : this.folder.getRoot().listFiles()) {
+            byte[] content = Files.readAllBytes(file.toPath());
+            // 識別子・バージョンの直後にある、最初の文字列の長さを最大値にする
+            ByteBuffer.wrap(content).putInt(8, Integer.MAX_VALUE);
+            Files.write(file.toPath(), content);
+        }
+
+        ResourceBundle.clearCache();
+        ResourceBundle bundle = ResourceBundle.getBundle("resourcebundle.test.snapshot", Locale.ROOT, control);
+        assertThat(bundle, is(instanceOf(PropertyResourceBundle.class)));
+        assertThat(bundle.getString("greeting"), is("こんにちは"));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleSourceTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Before
+    public void setUp() {
+        ResourceBundle.clearCache();
+    }
+
+    @Test
+    public void ディレクトリからリソースを取得する() throws IOException {
+        Path root = this.folder.getRoot().toPath();
+        Files.createDirectories(root.resolve("dir/test"));
+        Files.write(root.resolve("dir/test/messages.properties"), utf8("test=ディレクトリ(default)"));
+        Files.write(root.resolve("dir/test/messages_en_US.properties"), utf8("test=directory(US)"));
+        Files.write(root.resolve("dir/test/messages2.properties"), utf8("test=other"));
+
+        CustomControl control = CustomControl.builder()
+                .charCode("UTF-8")
+                .source(new DirectoryBundleSource(root))
+                .build();
+        assertThat(ResourceBundle.getBundle("dir.test.messages", Locale.US, control).getString("test"), is("directory(US)"));
+        assertThat(ResourceBundle.getBundle("dir.test.messages", Locale.CHINA, control).getString("test"), is("ディレクトリ(default)"));
+    }
+
+    @Test
+    public void zipアーカイブからリソースを取得する() throws IOException {
+        Path archive = this.folder.newFile("messages.zip").toPath();
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(archive))) {
+            putEntry(zip, "zip/test/messages.properties", "test=zip(default)");
+            putEntry(zip, "zip/test/messages_ja_JP.properties", "test=zip(JP)");
+            putEntry(zip, "zip/test/messages_ja.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                                                      + "<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">"
+                                                      + "<properties><entry key=\"test\">zip(xml)</entry></properties>");
+        }
+
+        CustomControl control = CustomControl.builder()
+                .source(new ZipBundleSource(archive))
+                .build();
+        assertThat(ResourceBundle.getBundle("zip.test.messages", Locale.JAPAN, control).getString("test"), is("zip(JP)"));
+        assertThat(ResourceBundle.getBundle("zip.test.messages", Locale.JAPANESE, control).getString("test"), is("zip(xml)"));
+    }
+
+    @Test
+    public void 全ロケールのリソースを一度の取得で検索する() {
+        AtomicInteger count = new AtomicInteger();
+        Map<String, byte[]> resources = new HashMap<>();
+        resources.put("memory/test/messages.properties", utf8("test=memory(default)\nonly=default"));
+        resources.put("memory/test/messages_ja.properties", utf8("test=memory(ja)"));
+        BundleSource memory = new InMemoryBundleSource(resources);
+        BundleSource counting = (baseName, suffix) -> {
+            count.incrementAndGet();
+            return memory.fetchAll(baseName, suffix);
+        };
+
+        CustomControl control = CustomControl.builder()
+                .charCode("UTF-8")
+                .formats(CustomControl.FORMAT_DEFAULT)
+                .source(counting)
+                .build();
+        ResourceBundle bundle = ResourceBundle.getBundle("memory.test.messages", Locale.JAPAN, control);
+        assertThat(bundle.getString("test"), is("memory(ja)"));
+        assertThat(bundle.getString("only"), is("default"));
+        assertThat(count.get(), is(1));
+    }
+
+    @Test
+    public void baseNameの前方一致だけでは該当しない() {
+        Map<String, byte[]> resources = new HashMap<>();
+        resources.put("a/messages.properties", utf8(""));
+        resources.put("a/messages_fr.properties", utf8(""));
+        resources.put("a/messages2.properties", utf8(""));
+        resources.put("a/messages_fr.xml", utf8(""));
+        Map<String, byte[]> variants = new InMemoryBundleSource(resources).fetchAll("a.messages", "properties");
+        assertThat(variants.keySet().size(), is(2));
+        assertThat(variants.containsKey("a/messages_fr.properties"), is(true));
+    }
+
+    @Test
+    public void 有効期限が切れた場合は取得し直す() {
+        Map<String, byte[]> resources = new HashMap<>();
+        resources.put("reload/test/messages.properties", utf8("test=v1"));
+        AtomicInteger count = new AtomicInteger();
+        BundleSource source = (baseName, suffix) -> {
+            count.incrementAndGet();
+            return new InMemoryBundleSource(resources).fetchAll(baseName, suffix);
+        };
+        CustomControl control = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(source)
+                .timeToLive(0L)
+                .build();
+        assertThat(ResourceBundle.getBundle("reload.test.messages", Locale.ROOT, control).getString("test"), is("v1"));
+
+        resources.put("reload/test/messages.properties", utf8("test=v2"));
+        assertThat(ResourceBundle.getBundle("reload.test.messages", Locale.ROOT, control).getString("test"), is("v2"));
+        assertThat(count.get(), is(2));
+    }
+
+    @Test
+    public void キャッシュしない場合は都度取得する() {
+        Map<String, byte[]> resources = new HashMap<>();
+        resources.put("nocache/test/messages.properties", utf8("test=v1"));
+        resources.put("nocache/test/messages_ja.properties", utf8("test=v1(ja)"));
+        AtomicInteger count = new AtomicInteger();
+        CustomControl control = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source((baseName, suffix) -> {
+                    count.incrementAndGet();
+                    return new InMemoryBundleSource(resources).fetchAll(baseName, suffix);
+                })
+                .timeToLive(CustomControl.TTL_DONT_CACHE)
+                .build();
+        assertThat(ResourceBundle.getBundle("nocache.test.messages", Locale.JAPAN, control).getString("test"), is("v1(ja)"));
+        // 候補ロケール（ja_JP・ja・ROOT）毎には取得しない
+        assertThat(count.get(), is(1));
+
+        resources.put("nocache/test/messages_ja.properties", utf8("test=v2(ja)"));
+        assertThat(ResourceBundle.getBundle("nocache.test.messages", Locale.JAPAN, control).getString("test"), is("v2(ja)"));
+        assertThat(count.get(), is(2));
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        OutputStream out = zip;
+        out.write(utf8(content));
+        zip.closeEntry();
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
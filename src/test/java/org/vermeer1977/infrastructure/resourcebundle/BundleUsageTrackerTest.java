@@ -0,0 +1,189 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.stream.Collectors;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class BundleUsageTrackerTest {
+
+    private static final String BASE_NAME = "resourcebundle.test.usage";
+
+    private final BundleUsageTracker tracker = new BundleUsageTracker();
+
+    private final CustomControl control = CustomControl.builder()
+            .charCode("UTF-8")
+            .usageTracker(this.tracker)
+            .build();
+
+    @Before
+    public void setUp() {
+        ResourceBundle.clearCache();
+    }
+
+    @Test
+    public void 参照回数の多いキーを返却する() {
+        ResourceBundle bundle = ResourceBundle.getBundle(BASE_NAME, Locale.JAPAN, this.control);
+        for (int i = 0; i < 3; i++) {
+            assertThat(bundle.getString("title"), is("タイトル"));
+        }
+        assertThat(bundle.getString("label"), is("Label"));
+
+        List<KeyUsage> hotKeys = this.tracker.getHotKeys(10);
+        assertThat(hotKeys, is(Arrays.asList(
+                new KeyUsage(BASE_NAME, Locale.JAPAN, "title", 3),
+                new KeyUsage(BASE_NAME, Locale.ROOT, "label", 1))));
+        assertThat(this.tracker.getHotKeys(1).size(), is(1));
+    }
+
+    @Test
+    public void 一度も参照されていないキーを返却する() {
+        ResourceBundle bundle = ResourceBundle.getBundle(BASE_NAME, Locale.JAPAN, this.control);
+        bundle.getString("title");
+
+        List<String> unusedKeys = this.tracker.getUnusedKeys().stream()
+                .map(usage -> usage.getLocale() + ":" + usage.getKey())
+                .collect(Collectors.toList());
+        assertThat(unusedKeys, is(Arrays.asList(":label", ":title", ":unused", "ja_JP:unused")));
+    }
+
+    @Test
+    public void 親リソースを参照した割合をロケール毎に集計する() {
+        ResourceBundle bundle = ResourceBundle.getBundle(BASE_NAME, Locale.JAPAN, this.control);
+        bundle.getString("title");
+        bundle.getString("label");
+        bundle.getString("label");
+        bundle.containsKey("none");
+
+        List<LocaleUsage> localeUsages = this.tracker.getLocaleUsages();
+        assertThat(localeUsages.size(), is(2));
+        assertThat(localeUsages.get(0), is(new LocaleUsage(BASE_NAME, Locale.ROOT, 2, 0)));
+        LocaleUsage japan = localeUsages.get(1);
+        assertThat(japan.getHits(), is(1L));
+        assertThat(japan.getMisses(), is(2L));
+        assertThat(japan.getMissRate(), is(2d / 3));
+        assertThat(this.tracker.getMissedKeys(10), is(Arrays.asList(new KeyUsage(BASE_NAME, Locale.JAPAN, "label", 2))));
+    }
+
+    @Test
+    public void エクスポートした集計結果を読み込む() throws IOException {
+        ResourceBundle bundle = ResourceBundle.getBundle(BASE_NAME, Locale.JAPAN, this.control);
+        bundle.getString("title");
+        bundle.getString("title");
+        bundle.getString("label");
+
+        StringWriter writer = new StringWriter();
+        this.tracker.export(writer);
+        assertThat(writer.toString(), is("# baseName\tlocale\tkey\tcount\n"
+                                         + BASE_NAME + "\tja-JP\ttitle\t2\n"
+                                         + BASE_NAME + "\tund\tlabel\t1\n"));
+        assertThat(BundleUsageTracker.read(new StringReader(writer.toString())), is(this.tracker.getHotKeys(10)));
+    }
+
+    @Test
+    public void 間引いて数えた場合も推計値を集計する() {
+        BundleUsageTracker sampled = new BundleUsageTracker(4);
+        CustomControl sampledControl = CustomControl.builder().charCode("UTF-8").usageTracker(sampled).build();
+        ResourceBundle bundle = ResourceBundle.getBundle(BASE_NAME, Locale.JAPAN, sampledControl);
+        for (int i = 0; i < 4000; i++) {
+            bundle.getString("title");
+        }
+        long count = sampled.getHotKeys(1).get(0).getCount();
+        assertThat(count % 4, is(0L));
+        assertTrue(count > 2000 && count < 6000);
+    }
+
+    @Test
+    public void 他の機能による読み込みは参照回数に数えない() {
+        Map<String, String> contents = new HashMap<>();
+        contents.put("combined/usage.properties", "title=Title\nlabel=Label");
+        contents.put("combined/usage-acme.properties", "title=ACME");
+        BundleSource source = (baseName, suffix) -> {
+            Map<String, byte[]> batch = new HashMap<>();
+            contents.forEach((name, text) -> batch.put(name, text.getBytes(StandardCharsets.UTF_8)));
+            return batch;
+        };
+        BundleDiagnostics diagnostics = new BundleDiagnostics();
+        List<BundleReloadEvent> events = new ArrayList<>();
+        CustomControl combined = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(source)
+                .timeToLive(0L)
+                .usageTracker(this.tracker)
+                .diagnostics(diagnostics)
+                .reloadListener(events::add)
+                .reloadExecutor(Runnable::run)
+                .build();
+
+        BundleExport export = BundleExporter.builder().control(combined).build().export("combined.usage", Locale.ROOT);
+        assertThat(export.getKeys().size(), is(2));
+        ResourceBundle bundle = ResourceBundle.getBundle("combined.usage", Locale.ROOT, combined);
+        IndexedBundle indexed = IndexedBundle.of(KeyIndex.of(bundle), bundle);
+        assertThat(indexed.getMissingKeys().isEmpty(), is(true));
+        TenantBundles tenants = TenantBundles.builder().control(combined).baseName("combined.usage").build();
+        ResourceBundle tenant = tenants.getBundle("acme", Locale.ROOT);
+        assertThat(tenant, is(instanceOf(OverlayResourceBundle.class)));
+        // テナントのResourceBundleから共有するResourceBundleの値を読み込んでも数えない
+        assertThat(BundleExport.of(tenant).getKeys().size(), is(2));
+        assertThat(IndexedBundle.of(KeyIndex.of(tenant), tenant).getMissingKeys().isEmpty(), is(true));
+        contents.put("combined/usage.properties", "title=Title2\nlabel=Label");
+        bundle = ResourceBundle.getBundle("combined.usage", Locale.ROOT, combined);
+        assertThat(events.get(events.size() - 1).getChangedKeys(), is(Collections.singleton("title")));
+
+        assertThat(this.tracker.getHotKeys(10).isEmpty(), is(true));
+        assertThat(this.tracker.getMissedKeys(10).isEmpty(), is(true));
+
+        // 置き換えたResourceBundleを記録するので、読み込み元のResourceBundleが破棄されても診断できる
+        System.gc();
+        assertThat(diagnostics.report().getFootprints().stream().anyMatch(
+                footprint -> footprint.getBaseName().equals("combined.usage")), is(true));
+
+        assertThat(bundle.getString("title"), is("Title2"));
+        assertThat(this.tracker.getHotKeys(10), is(Collections.singletonList(new KeyUsage("combined.usage", Locale.ROOT, "title", 1))));
+    }
+
+    @Test
+    public void 集計結果を破棄する() {
+        ResourceBundle bundle = ResourceBundle.getBundle(BASE_NAME, Locale.JAPAN, this.control);
+        bundle.getString("title");
+        this.tracker.clear();
+        assertThat(this.tracker.getHotKeys(10).isEmpty(), is(true));
+        bundle.getString("title");
+        assertThat(this.tracker.getHotKeys(10).get(0).getCount(), is(1L));
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * CustomControlを複数スレッドから同時に使用した場合の検証.<br>
+ * 取得・有効期限切れによる再ロード・ファイルの書き換え・キャッシュの破棄を並行して行う.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class CustomControlConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    private static final int ITERATIONS = 500;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        ResourceBundle.clearCache();
+        this.executor = Executors.newFixedThreadPool(THREADS + 1);
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        this.executor.shutdownNow();
+        this.executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 対応するリソースが無いロケールでデフォルトリソースへfallbackした後も、別のロケールで同様にfallbackできる.
+     */
+    @Test
+    public void キャッシュ済みのResourceBundleでfallbackを繰り返す() {
+        CustomControl control = CustomControl.builder().charCode("UTF-8").build();
+        assertThat(ResourceBundle.getBundle("resourcebundle.test.utf8", Locale.CHINA, control).getString("test"), is("UTF8のテスト(default)"));
+        assertThat(ResourceBundle.getBundle("resourcebundle.test.utf8", Locale.CHINESE, control).getString("test"), is("UTF8のテスト(default)"));
+        assertThat(ResourceBundle.getBundle("resourcebundle.test.utf8", Locale.CHINA, control).getString("test"), is("UTF8のテスト(default)"));
+    }
+
+    @Test
+    public void 複数スレッドから同じControlで取得する() throws Exception {
+        CustomControl control = CustomControl.builder().charCode("UTF-8").build();
+        Locale[] locales = {Locale.US, Locale.JAPAN, Locale.CHINA, Locale.CHINESE, Locale.FRANCE, Locale.ROOT};
+        String[] expected = {"UTF8english", "UTF8のテスト(JP)", "UTF8のテスト(default)", "UTF8のテスト(default)",
+                             "UTF8のテスト(default)", "UTF8のテスト(default)"};
+
+        this.runConcurrently(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                int index = (thread + i) % locales.length;
+                String actual = ResourceBundle.getBundle("resourcebundle.test.utf8", locales[index], control).getString("test");
+                assertThat(actual, is(expected[index]));
+                if (thread == 0 && i % 50 == 0) {
+                    ResourceBundle.clearCache();
+                }
+            }
+        });
+    }
+
+    /**
+     * ファイルを書き換えながら有効期限0（取得毎に再ロード判定）で取得する.<br>
+     * 書き換え途中の内容を参照しないように、ファイルは一時ファイルからの置き換えで更新する.
+     */
+    @Test
+    public void ファイルを書き換えながら取得する() throws Exception {
+        Path root = this.folder.getRoot().toPath();
+        Files.createDirectories(root.resolve("reload"));
+        Path file = root.resolve("reload/messages.properties");
+        long baseTime = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        rewrite(file, 0, baseTime);
+
+        CustomControl control = CustomControl.builder().charCode("UTF-8").timeToLive(0L).build();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        int versions = 200;
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{root.toUri().toURL()}, null)) {
+            Future<?> writer = this.executor.submit((Callable<Void>) () -> {
+                try {
+                    for (int version = 1; version <= versions; version++) {
+                        rewrite(file, version, baseTime + version * 1000L);
+                        if (version % 20 == 0) {
+                            ResourceBundle.clearCache(loader);
+                        }
+                    }
+                    return null;
+                }
+                finally {
+                    writing.set(false);
+                }
+            });
+
+            this.runConcurrently(thread -> {
+                do {
+                    String value = ResourceBundle.getBundle("reload.messages", Locale.ROOT, loader, control).getString("test");
+                    assertTrue(value, value.matches("version\\d+"));
+                } while (writing.get());
+            });
+            writer.get();
+
+            assertThat(ResourceBundle.getBundle("reload.messages", Locale.ROOT, loader, control).getString("test"),
+                       is("version" + versions));
+        }
+    }
+
+    private static void rewrite(Path file, int version, long lastModified) throws IOException {
+        Path temp = Files.createTempFile(file.getParent(), "messages", ".tmp");
+        Files.write(temp, ("test=version" + version).getBytes(StandardCharsets.UTF_8));
+        // 更新日時を増加させ続けて、ファイルシステムの時刻精度に関係なく再ロード対象とする
+        Files.setLastModifiedTime(temp, FileTime.fromMillis(lastModified));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void runConcurrently(Task task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int number = thread;
+            futures.add(this.executor.submit((Callable<Void>) () -> {
+                start.await();
+                task.run(number);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+
+        void run(int thread) throws Exception;
+    }
+}
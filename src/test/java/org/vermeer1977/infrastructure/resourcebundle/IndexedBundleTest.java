@@ -0,0 +1,167 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class IndexedBundleTest {
+
+    private final CustomControl control = CustomControl.builder().charCode("UTF-8").build();
+
+    @Test
+    public void デフォルトリソースのキーを昇順に並べる() {
+        KeyIndex index = KeyIndex.of(ResourceBundle.getBundle("resourcebundle.test.indexed", Locale.ROOT, this.control));
+        assertThat(index.getKeys(), is(Arrays.asList("menu.edit", "menu.file", "title")));
+        assertThat(index.indexOf("title"), is(2));
+        assertThat(index.indexOf("none"), is(-1));
+    }
+
+    @Test
+    public void 親リソースまで解決した値を添字で参照する() {
+        KeyIndex index = KeyIndex.of(ResourceBundle.getBundle("resourcebundle.test.indexed", Locale.ROOT, this.control));
+        IndexedBundle bundle = IndexedBundle.of(index, ResourceBundle.getBundle("resourcebundle.test.indexed", Locale.JAPAN, this.control));
+        assertThat(bundle.getString(index.indexOf("title")), is("タイトル"));
+        assertThat(bundle.getString(index.indexOf("menu.edit")), is("Edit"));
+        assertThat(bundle.getMissingKeys(), is(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void enumのキーで参照し_存在しないキーは生成時に把握する() {
+        IndexedBundleLoader loader = IndexedBundleLoader.builder()
+                .control(this.control)
+                .keyIndex(KeyIndex.of(IndexedKey.class))
+                .build();
+        IndexedBundle bundle = loader.load("resourcebundle.test.indexed", Locale.JAPAN);
+        assertThat(bundle.getString(IndexedKey.TITLE), is("タイトル"));
+        assertThat(bundle.getString(IndexedKey.MENU_FILE), is("ファイル"));
+        assertThat(bundle.getString(IndexedKey.MENU_CLOSE), is(nullValue()));
+        assertThat(bundle.getMissingKeys(), is(Arrays.asList("menu.close")));
+        assertThat(loader.load("resourcebundle.test.indexed", Locale.JAPAN), is(sameInstance(bundle)));
+    }
+
+    @Test
+    public void enumのソースを生成する() {
+        KeyIndex index = KeyIndex.of(ResourceBundle.getBundle("resourcebundle.test.indexed", Locale.ROOT, this.control));
+        String source = index.toEnumSource("com.example", "MessageKey");
+        assertThat(source, containsString("package com.example;"));
+        assertThat(source, containsString("public enum MessageKey implements TypedKey {"));
+        assertThat(source, containsString("    MENU_EDIT(\"menu.edit\"),\n    MENU_FILE(\"menu.file\"),\n    TITLE(\"title\");"));
+
+        // 重複を避けて付け直した名前が、別のキーの名前と重複しないこと
+        Map<String, String> entries = new HashMap<>();
+        entries.put("a.b", "1");
+        entries.put("a.b.2", "2");
+        entries.put("a_b", "3");
+        String renamed = KeyIndex.of(new MapResourceBundle(entries)).toEnumSource("", "MessageKey");
+        assertThat(renamed, containsString("    A_B(\"a.b\"),\n    A_B_2(\"a.b.2\"),\n    A_B_2_2(\"a_b\");"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 定義順と位置が一致しないenumは使用できない() {
+        KeyIndex.of(BrokenKey.class);
+    }
+
+    @Test
+    public void 別のenumのキーは参照できない() {
+        IndexedBundle bundle = IndexedBundle.of(KeyIndex.of(IndexedKey.class),
+                                                ResourceBundle.getBundle("resourcebundle.test.indexed", Locale.JAPAN, this.control));
+        TypedKey other = new TypedKey() {
+            @Override
+            public int index() {
+                return 2;
+            }
+
+            @Override
+            public String key() {
+                return "title";
+            }
+        };
+        try {
+            bundle.getString(other);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage(), containsString(IndexedKey.class.getName()));
+        }
+    }
+
+    @Test
+    public void 位置とキーが一致しないキーは参照できない() {
+        KeyIndex index = KeyIndex.of(ResourceBundle.getBundle("resourcebundle.test.indexed", Locale.ROOT, this.control));
+        IndexedBundle bundle = IndexedBundle.of(index, ResourceBundle.getBundle("resourcebundle.test.indexed", Locale.JAPAN, this.control));
+        assertThat(bundle.getString(IndexedKey.TITLE), is("タイトル"));
+        try {
+            bundle.getObject(IndexedKey.MENU_CLOSE);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage(), containsString("menu.close"));
+        }
+    }
+
+    enum IndexedKey implements TypedKey {
+
+        MENU_CLOSE("menu.close"),
+        MENU_FILE("menu.file"),
+        TITLE("title");
+
+        private final String key;
+
+        private IndexedKey(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public int index() {
+            return this.ordinal();
+        }
+
+        @Override
+        public String key() {
+            return this.key;
+        }
+    }
+
+    enum BrokenKey implements TypedKey {
+
+        TITLE;
+
+        @Override
+        public int index() {
+            return 1;
+        }
+
+        @Override
+        public String key() {
+            return "title";
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.util.Locale;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class LocaleNegotiatorTest {
+
+    private final LocaleNegotiator negotiator = LocaleNegotiator.builder()
+            .control(CustomControl.builder()
+                    .charCode("UTF-8")
+                    .targetCandidateLocalePair(
+                            TargetCandidateLocalePair.builder()
+                            .targetLocale(Locale.JAPAN)
+                            .candidateLocale(Locale.JAPAN)
+                            .candidateLocale(Locale.ROOT)
+                            .build())
+                    .build())
+            .supportedLocale(Locale.US)
+            .build();
+
+    @Test
+    public void 優先度の高い言語のResourceBundleを取得する() {
+        assertThat(this.negotiator.getBundle("resourcebundle.test.utf8", "en-US,ja-JP;q=0.8").getString("test"),
+                   is("UTF8english"));
+        assertThat(this.negotiator.getBundle("resourcebundle.test.utf8", "ja-JP,en-US;q=0.8").getString("test"),
+                   is("UTF8のテスト(JP)"));
+    }
+
+    @Test
+    public void 一致する言語が無い場合はデフォルトリソース() {
+        assertThat(this.negotiator.negotiate("fr-FR,de;q=0.5"), is(Locale.ROOT));
+        assertThat(this.negotiator.getBundle("resourcebundle.test.utf8", "fr-FR,de;q=0.5").getString("test"),
+                   is("UTF8のテスト(default)"));
+    }
+
+    @Test
+    public void 範囲指定は対象ロケールを切り詰めて照合する() {
+        assertThat(this.negotiator.negotiate("en-US-x-private"), is(Locale.US));
+        assertThat(this.negotiator.negotiate("*"), is(Locale.ROOT));
+    }
+
+    @Test
+    public void 言語のみの指定は地域を含む対象ロケールに一致する() {
+        assertThat(this.negotiator.negotiate("ja,en;q=0.5"), is(Locale.JAPAN));
+        assertThat(this.negotiator.negotiate("ja"), is(Locale.JAPAN));
+        assertThat(this.negotiator.negotiate("en,ja;q=0.5"), is(Locale.US));
+        // 優先度の高い言語範囲が言語のみの指定でも、優先度の低い完全一致より優先する
+        assertThat(this.negotiator.negotiate("ja,en-US;q=0.5"), is(Locale.JAPAN));
+        assertThat(this.negotiator.getBundle("resourcebundle.test.utf8", "ja,en;q=0.5").getString("test"),
+                   is("UTF8のテスト(JP)"));
+    }
+
+    @Test
+    public void 不正なヘッダや未指定の場合はデフォルトロケール() {
+        LocaleNegotiator english = LocaleNegotiator.builder()
+                .supportedLocale(Locale.US)
+                .defaultLocale(Locale.US)
+                .build();
+        assertThat(english.negotiate("ja;q=2"), is(Locale.US));
+        assertThat(english.negotiate(null), is(Locale.US));
+        assertThat(english.negotiate(""), is(Locale.US));
+    }
+
+    @Test
+    public void 上限件数を超えても決定結果は変わらない() {
+        LocaleNegotiator small = LocaleNegotiator.builder()
+                .supportedLocale(Locale.US)
+                .supportedLocale(Locale.JAPAN)
+                .maxCacheSize(1)
+                .build();
+        assertThat(small.negotiate("ja-JP"), is(Locale.JAPAN));
+        assertThat(small.negotiate("en-US"), is(Locale.US));
+        assertThat(small.negotiate("ja-JP"), is(Locale.JAPAN));
+    }
+}
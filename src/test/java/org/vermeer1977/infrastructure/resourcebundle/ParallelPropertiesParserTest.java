@@ -0,0 +1,182 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.PropertyResourceBundle;
+import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class ParallelPropertiesParserTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void tearDownClass() {
+        POOL.shutdown();
+    }
+
+    @Test
+    public void 継続行とコメント行の途中では分割しない() {
+        String text = "a=1\\\n"
+                      + "#continued\n"
+                      + "# comment \\\n"
+                      + "b=2\\\\\n"
+                      + "c=3\\\r\n"
+                      + "\n"
+                      + "d=4";
+        List<Integer> boundaries = ParallelPropertiesParser.split(text, 1);
+        assertThat(boundaries, is(Arrays.asList(0, 16, 28, 34, 41, 44)));
+    }
+
+    @Test
+    public void 逐次解析と同じ結果になる() throws IOException {
+        String text = largeProperties();
+        Properties expected = new Properties();
+        expected.load(new StringReader(text));
+
+        Map<String, String> entries = ParallelPropertiesParser.parse(text, POOL);
+        assertThat(entries, is(toMap(expected)));
+        assertThat(entries.get("duplicate"), is("last"));
+    }
+
+    @Test
+    public void SJISの2バイト目が円記号のコードでも正しく解析する() throws IOException {
+        Charset sjis = Charset.forName("SJIS");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            // 「ソ」「表」「能」はSJISの2バイト目が0x5C
+            sb.append("key").append(i).append("=ソフト表示機能").append(i).append("\r\n");
+        }
+        byte[] content = sb.toString().getBytes(sjis);
+        CustomControl control = CustomControl.builder()
+                .charCode("SJIS")
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(new InMemoryBundleSource(Collections.singletonMap("parallel/sjis.properties", content)))
+                .parallelParseThreshold(1024L)
+                .parsePool(POOL)
+                .build();
+
+        ResourceBundle bundle = ResourceBundle.getBundle("parallel.sjis", Locale.ROOT, new URLClassLoader(new URL[0], null), control);
+        assertThat(bundle, is(instanceOf(MapResourceBundle.class)));
+        assertThat(bundle.keySet().size(), is(5000));
+        assertThat(bundle.getString("key4999"), is("ソフト表示機能4999"));
+
+        Properties expected = new Properties();
+        expected.load(new InputStreamReader(new ByteArrayInputStream(content), sjis));
+        for (String key : bundle.keySet()) {
+            assertThat(bundle.getString(key), is(expected.getProperty(key)));
+        }
+    }
+
+    @Test
+    public void 閾値未満の場合は逐次解析する() {
+        byte[] content = "title=小さいファイル".getBytes(StandardCharsets.UTF_8);
+        CustomControl control = CustomControl.builder()
+                .charCode("UTF-8")
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(new InMemoryBundleSource(Collections.singletonMap("parallel/small.properties", content)))
+                .parallelParseThreshold(1024L)
+                .build();
+
+        ResourceBundle bundle = ResourceBundle.getBundle("parallel.small", Locale.ROOT, new URLClassLoader(new URL[0], null), control);
+        assertThat(bundle.getClass().getName(), is("java.util.PropertyResourceBundle"));
+        assertThat(bundle.getString("title"), is("小さいファイル"));
+    }
+
+    @Test
+    public void 文字コードの指定が無い場合は閾値の前後で同じ文字コードで読み込む() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("key").append(i).append("=日本語の値").append(i).append('\n');
+        }
+        // UTF-8のpropertiesと、UTF-8として不正なバイト列を含むISO-8859-1のproperties
+        for (byte[] content : new byte[][]{sb.toString().getBytes(StandardCharsets.UTF_8),
+                                           sb.toString().replace("日本語の値", "caf\u00e9").getBytes(StandardCharsets.ISO_8859_1)}) {
+            assertThat(content.length > 1024, is(true));
+            ResourceBundle expected = new PropertyResourceBundle(new ByteArrayInputStream(content));
+            for (long threshold : new long[]{1024L, Long.MAX_VALUE}) {
+                CustomControl control = CustomControl.builder()
+                        .formats(CustomControl.FORMAT_PROPERTIES)
+                        .source(new InMemoryBundleSource(Collections.singletonMap("parallel/default.properties", content)))
+                        .parallelParseThreshold(threshold)
+                        .parsePool(POOL)
+                        .build();
+                ResourceBundle bundle = ResourceBundle.getBundle("parallel.default", Locale.ROOT, new URLClassLoader(new URL[0], null), control);
+                assertThat(bundle.keySet(), is(expected.keySet()));
+                for (String key : expected.keySet()) {
+                    assertThat(bundle.getString(key), is(expected.getString(key)));
+                }
+            }
+        }
+    }
+
+    private static String largeProperties() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("duplicate=first\n");
+        for (int i = 0; i < 20000; i++) {
+            switch (i % 5) {
+                case 0:
+                    sb.append("multi").append(i).append(" = 先頭\\\n    #継続\\\n    末尾").append(i).append('\n');
+                    break;
+                case 1:
+                    sb.append("# コメント行は継続しない \\\n");
+                    sb.append("after").append(i).append(":value\\\\\n");
+                    break;
+                case 2:
+                    sb.append("  crlf").append(i).append("\tタブ区切り\\\r\n  次の行\r\n");
+                    break;
+                case 3:
+                    sb.append("! 感嘆符のコメント\n\n");
+                    break;
+                default:
+                    sb.append("escaped\\=").append(i).append("=\\u3042\\t").append(i).append('\n');
+            }
+        }
+        sb.append("duplicate=last");
+        return sb.toString();
+    }
+
+    private static Map<String, String> toMap(Properties properties) {
+        Map<String, String> map = new HashMap<>();
+        properties.forEach((key, value) -> map.put((String) key, (String) value));
+        return map;
+    }
+}
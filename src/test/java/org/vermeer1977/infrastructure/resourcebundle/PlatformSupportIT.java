@@ -0,0 +1,79 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.PropertyResourceBundle;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeTrue;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * パッケージしたマルチリリースJARで、実行するJavaのバージョンの実装が使用されることを確認する.<br>
+ * Java21以降でビルドした場合に、maven-failsafe-pluginでJARをクラスパスに指定して実行する.
+ *
+ * @author Yamashita,Takahiro
+ */
+public class PlatformSupportIT {
+
+    @Before
+    public void setUp() {
+        String version = System.getProperty("java.specification.version");
+        assumeTrue(version.startsWith("1.") == false && Integer.parseInt(version) >= 21);
+    }
+
+    @Test
+    public void Java21向けのクラスをJARから読み込む() {
+        URL resource = PlatformSupport.class.getResource("PlatformSupport.class");
+        assertThat(resource.getProtocol(), is("jar"));
+        assertThat(resource.toString(), containsString("!/META-INF/versions/21/"));
+    }
+
+    @Test
+    public void バックグラウンド処理を仮想スレッドで実行する() throws InterruptedException, ExecutionException, ReflectiveOperationException {
+        CompletableFuture<Thread> future = new CompletableFuture<>();
+        PlatformSupport.defaultExecutor().execute(() -> future.complete(Thread.currentThread()));
+        // Java8向けにコンパイルするため、Thread#isVirtualはリフレクションで呼び出す
+        assertThat(Thread.class.getMethod("isVirtual").invoke(future.get()), is(true));
+    }
+
+    @Test
+    public void 特権ブロックを使用せずにリソースを読み込む() {
+        CustomControl control = CustomControl.builder().charCode("UTF-8").build();
+        ResourceBundle bundle = ResourceBundle.getBundle("resourcebundle.test.utf8", Locale.CHINESE, control);
+        assertThat(bundle.getString("test"), is("UTF8のテスト(default)"));
+    }
+
+    @Test
+    public void 文字コードの指定が無いpropertiesはPropertyResourceBundleと同じ文字コードで読み込む() throws IOException {
+        for (byte[] content : new byte[][]{"title=日本語".getBytes(StandardCharsets.UTF_8),
+                                           "title=caf\u00e9 au lait".getBytes(StandardCharsets.ISO_8859_1)}) {
+            PropertyResourceBundle expected = new PropertyResourceBundle(new ByteArrayInputStream(content));
+            assertThat(PlatformSupport.decodeProperties(content), is("title=" + expected.getString("title")));
+        }
+    }
+}
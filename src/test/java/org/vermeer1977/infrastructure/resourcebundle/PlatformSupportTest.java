@@ -0,0 +1,64 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.PropertyResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class PlatformSupportTest {
+
+    private final ClassLoader loader = PlatformSupportTest.class.getClassLoader();
+
+    @Test
+    public void リソースのInputStreamを取得する() throws IOException {
+        for (boolean reload : new boolean[]{false, true}) {
+            try (InputStream stream = PlatformSupport.openStream(this.loader, "resourcebundle/test/export.properties", reload)) {
+                assertThat(CustomControl.readAllBytes(stream).length > 0, is(true));
+            }
+            assertThat(PlatformSupport.openStream(this.loader, "resourcebundle/test/none.properties", reload), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void 文字コードの指定が無いpropertiesは実行環境のPropertyResourceBundleと同じ文字コードで読み込む() throws IOException {
+        for (byte[] content : new byte[][]{"title=日本語".getBytes(StandardCharsets.UTF_8),
+                                           "title=caf\u00e9 au lait".getBytes(StandardCharsets.ISO_8859_1)}) {
+            PropertyResourceBundle expected = new PropertyResourceBundle(new ByteArrayInputStream(content));
+            assertThat(PlatformSupport.decodeProperties(content), is("title=" + expected.getString("title")));
+        }
+    }
+
+    @Test
+    public void バックグラウンド処理を実行する() throws InterruptedException, ExecutionException {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        PlatformSupport.defaultExecutor().execute(() -> future.complete("done"));
+        assertThat(future.get(), is("done"));
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.junit.Test;
+
+/**
+ *
+ * @author Yamashita,Takahiro
+ */
+public class TenantBundlesTest {
+
+    private final CustomControl control = CustomControl.builder().charCode("UTF-8").build();
+
+    private final TenantBundles tenants = TenantBundles.builder()
+            .control(this.control)
+            .baseName("resourcebundle.test.tenant")
+            .build();
+
+    @Test
+    public void テナントの上書きを優先して参照する() {
+        ResourceBundle bundle = this.tenants.getBundle("acme", Locale.JAPAN);
+        assertThat(bundle.getString("title"), is("ACME"));
+        assertThat(bundle.getString("footer"), is("acme footer"));
+        assertThat(bundle.getString("menu.file"), is("ファイル"));
+        assertThat(bundle.keySet().size(), is(3));
+        assertThat(bundle.getLocale(), is(Locale.JAPAN));
+    }
+
+    @Test
+    public void 差分のみを保持して共有するResourceBundleを親とする() {
+        OverlayResourceBundle bundle = (OverlayResourceBundle) this.tenants.getBundle("acme", Locale.JAPAN);
+        assertThat(bundle.getOverrideCount(), is(3));
+        assertThat(bundle.handleGetObject("title"), is("ACME"));
+        assertThat(bundle.handleGetObject("footer") == null, is(true));
+    }
+
+    @Test
+    public void テナントの上書きはロケールの階層毎に重ねる() {
+        // テナントのルートの上書きより、共有するja_JPの値を優先する
+        ResourceBundle japan = this.tenants.getBundle("acme", Locale.JAPAN);
+        assertThat(japan.getString("menu.file"), is("ファイル"));
+        assertThat(japan.getString("footer"), is("acme footer"));
+
+        ResourceBundle root = this.tenants.getBundle("acme", Locale.ROOT);
+        assertThat(root.getString("menu.file"), is("ACME File"));
+        assertThat(root.getString("title"), is("Shared"));
+        assertThat(root.getLocale(), is(Locale.ROOT));
+
+        ResourceBundle japanese = this.tenants.getBundle("acme", Locale.JAPANESE);
+        assertThat(japanese.getString("title"), is("Shared"));
+        assertThat(japanese.getString("menu.file"), is("ACME File"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void リソース名の階層を変えるテナントは指定できない() {
+        this.tenants.getBundle("../acme", Locale.JAPAN);
+    }
+
+    @Test
+    public void 上書きが無いテナントは共有するResourceBundleを返却する() {
+        ResourceBundle base = ResourceBundle.getBundle("resourcebundle.test.tenant", Locale.JAPAN, this.control);
+        assertThat(this.tenants.getBundle("none", Locale.JAPAN), is(sameInstance(base)));
+        assertThat(this.tenants.getBundle("other", Locale.JAPAN), is(sameInstance(base)));
+    }
+
+    @Test
+    public void 再ロードされていなければ同じResourceBundleを返却する() {
+        ResourceBundle first = this.tenants.getBundle("acme", Locale.JAPAN);
+        assertThat(this.tenants.getBundle("acme", Locale.JAPAN), is(sameInstance(first)));
+    }
+
+    @Test
+    public void 保持する件数の上限を超えても同じ結果を返却する() {
+        TenantBundles small = TenantBundles.builder()
+                .control(this.control)
+                .baseName("resourcebundle.test.tenant")
+                .maxCacheSize(1)
+                .build();
+        ResourceBundle base = ResourceBundle.getBundle("resourcebundle.test.tenant", Locale.JAPAN, this.control);
+        assertThat(small.getBundle("none", Locale.JAPAN), is(sameInstance(base)));
+        assertThat(small.getBundle("other", Locale.JAPAN), is(sameInstance(base)));
+        assertThat(small.getBundle("acme", Locale.JAPAN).getString("title"), is("ACME"));
+        assertThat(small.getBundle("none", Locale.JAPAN), is(sameInstance(base)));
+    }
+
+    @Test
+    public void テナントの上書きは共有するResourceBundleと独立して再ロードする() {
+        Map<String, String> contents = new HashMap<>();
+        contents.put("overlay/messages.properties", "title=Shared\nfooter=default");
+        contents.put("overlay/messages-acme.properties", "title=ACME");
+        BundleSource source = (baseName, suffix) -> {
+            Map<String, byte[]> batch = new HashMap<>();
+            contents.forEach((name, text) -> batch.put(name, text.getBytes(StandardCharsets.UTF_8)));
+            return batch;
+        };
+        CustomControl reloadable = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(source)
+                .timeToLive(0L)
+                .build();
+        TenantBundles reloading = TenantBundles.builder()
+                .control(reloadable)
+                .baseName("overlay.messages")
+                .build();
+
+        ResourceBundle before = reloading.getBundle("acme", Locale.ROOT);
+        assertThat(before, is(instanceOf(OverlayResourceBundle.class)));
+        assertThat(before.getString("title"), is("ACME"));
+
+        contents.put("overlay/messages-acme.properties", "title=ACME2");
+        ResourceBundle after = reloading.getBundle("acme", Locale.ROOT);
+        assertThat(after, is(not(sameInstance(before))));
+        assertThat(after.getString("title"), is("ACME2"));
+        assertThat(after.getString("footer"), is("default"));
+    }
+
+    @Test
+    public void 下位の階層のみが再ロードされた場合も作り直す() {
+        Map<String, String> contents = new HashMap<>();
+        contents.put("levels/messages.properties", "title=Shared\nfooter=default");
+        contents.put("levels/messages_ja.properties", "menu=メニュー");
+        contents.put("levels/messages-acme.properties", "title=ACME");
+        contents.put("levels/messages-acme_ja.properties", "menu=ACMEメニュー");
+        BundleSource source = (baseName, suffix) -> {
+            Map<String, byte[]> batch = new HashMap<>();
+            contents.forEach((name, text) -> batch.put(name, text.getBytes(StandardCharsets.UTF_8)));
+            return batch;
+        };
+        CustomControl reloadable = CustomControl.builder()
+                .charCode("UTF-8")
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(source)
+                .timeToLive(0L)
+                .build();
+        TenantBundles reloading = TenantBundles.builder()
+                .control(reloadable)
+                .baseName("levels.messages")
+                .build();
+
+        ResourceBundle before = reloading.getBundle("acme", Locale.JAPANESE);
+        assertThat(before.getString("footer"), is("default"));
+
+        // 共有するResourceBundleのルートの階層のみを変更する
+        contents.put("levels/messages.properties", "title=Shared\nfooter=changed");
+        ResourceBundle after = reloading.getBundle("acme", Locale.JAPANESE);
+        assertThat(after, is(not(sameInstance(before))));
+        assertThat(after.getString("footer"), is("changed"));
+        assertThat(after.getString("menu"), is("ACMEメニュー"));
+        assertThat(after.getString("title"), is("ACME"));
+    }
+}
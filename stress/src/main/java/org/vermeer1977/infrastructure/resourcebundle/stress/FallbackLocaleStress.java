@@ -0,0 +1,60 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle.stress;
+
+import java.util.Locale;
+import java.util.MissingResourceException;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.LL_Result;
+import org.vermeer1977.infrastructure.resourcebundle.CustomControl;
+
+/**
+ * 複数スレッドから同時にfallbackした場合に、誤って無限ループと判定されないことの検証.
+ *
+ * @author Yamashita,Takahiro
+ */
+@JCStressTest
+@Outcome(id = "und, und", expect = Expect.ACCEPTABLE, desc = "both threads fall back to the default resource")
+@Outcome(expect = Expect.FORBIDDEN, desc = "fallback of one thread was affected by the other")
+@State
+public class FallbackLocaleStress {
+
+    private final CustomControl control = CustomControl.builder().build();
+
+    @Actor
+    public void actor1(LL_Result r) {
+        r.r1 = fallback(Locale.CHINA);
+    }
+
+    @Actor
+    public void actor2(LL_Result r) {
+        r.r2 = fallback(Locale.FRANCE);
+    }
+
+    private String fallback(Locale locale) {
+        try {
+            return this.control.getFallbackLocale("stress.messages", locale).toLanguageTag();
+        }
+        catch (MissingResourceException ex) {
+            return "missing";
+        }
+    }
+}
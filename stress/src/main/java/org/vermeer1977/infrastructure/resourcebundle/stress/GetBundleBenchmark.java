@@ -0,0 +1,96 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle.stress;
+
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vermeer1977.infrastructure.resourcebundle.CustomControl;
+
+/**
+ * 複数スレッドからCustomControlでResourceBundleを取得する場合のスループット.<br>
+ * スレッド数は実行時に -t で指定する（1から64まで変化させた測定手順はREADME.md）.
+ *
+ * @author Yamashita,Takahiro
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetBundleBenchmark {
+
+    private static final Locale[] LOCALES = {Locale.JAPAN, Locale.US, Locale.CHINA, Locale.ROOT};
+
+    private CustomControl cached;
+
+    private CustomControl expiring;
+
+    @Setup
+    public void setUp() {
+        this.cached = CustomControl.builder().charCode("UTF-8").build();
+        // 取得毎に有効期限切れとなり、needsReloadでリソースの更新日時を確認する
+        this.expiring = CustomControl.builder().charCode("UTF-8").timeToLive(0L).build();
+    }
+
+    /**
+     * キャッシュ済みのResourceBundleを取得して値を参照する.
+     *
+     * @param index スレッド毎のロケールの位置
+     * @return 参照した値
+     */
+    @Benchmark
+    public String cached(ThreadIndex index) {
+        return ResourceBundle.getBundle("stress.messages", index.next(), this.cached).getString("test");
+    }
+
+    /**
+     * 取得毎に再ロード判定を行うResourceBundleを取得して値を参照する.
+     *
+     * @param index スレッド毎のロケールの位置
+     * @return 参照した値
+     */
+    @Benchmark
+    public String expiring(ThreadIndex index) {
+        return ResourceBundle.getBundle("stress.expiring", index.next(), this.expiring).getString("test");
+    }
+
+    /**
+     * スレッド毎に取得するロケールを順番に切り替える.
+     */
+    @State(Scope.Thread)
+    public static class ThreadIndex {
+
+        private int position;
+
+        Locale next() {
+            this.position = (this.position + 1) & 3;
+            return LOCALES[this.position];
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle.stress;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vermeer1977.infrastructure.resourcebundle.BundleReloadEvent;
+import org.vermeer1977.infrastructure.resourcebundle.CustomControl;
+
+/**
+ * マルチリリースJARのJava8向けの実装とJava21向けの実装の比較.<br>
+ * 同じbenchmarks.jarをJava8とJava21で実行し、結果を比較する（手順はREADME.md）.
+ *
+ * @author Yamashita,Takahiro
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MultiReleaseBenchmark {
+
+    private CustomControl control;
+
+    private volatile String content;
+
+    private final BlockingQueue<BundleReloadEvent> events = new LinkedBlockingQueue<>();
+
+    private CustomControl reloading;
+
+    private ClassLoader reloadingLoader;
+
+    private int version;
+
+    @Setup
+    public void setUp() {
+        this.control = CustomControl.builder()
+                .charCode("UTF-8")
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .build();
+
+        this.content = "test=0";
+        this.reloading = CustomControl.builder()
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source((baseName, suffix) -> Collections.singletonMap(
+                        "stress/reloading.properties", this.content.getBytes(StandardCharsets.UTF_8)))
+                .timeToLive(0L)
+                .reloadListener(this.events::offer)
+                .build();
+        this.reloadingLoader = new URLClassLoader(new URL[0], null);
+        ResourceBundle.getBundle("stress.reloading", Locale.ROOT, this.reloadingLoader, this.reloading);
+    }
+
+    /**
+     * クラスローダーからpropertiesを読み込む（Java8は特権ブロックで取得する）.
+     *
+     * @return 読み込んだResourceBundle
+     * @throws Exception 読み込み時の例外
+     */
+    @Benchmark
+    public ResourceBundle openStream() throws Exception {
+        return this.control.newBundle("stress.messages", Locale.ROOT, "java.properties",
+                                      MultiReleaseBenchmark.class.getClassLoader(), false);
+    }
+
+    /**
+     * 再ロードして、変更の通知を受け取るまで待つ（Java8はForkJoinPool.commonPool、Java21は仮想スレッドで通知する）.
+     *
+     * @return 受け取った通知
+     * @throws InterruptedException 待機中に割り込まれた場合の例外
+     */
+    @Benchmark
+    public BundleReloadEvent reloadNotification() throws InterruptedException {
+        this.content = "test=" + (++this.version);
+        ResourceBundle.getBundle("stress.reloading", Locale.ROOT, this.reloadingLoader, this.reloading);
+        return this.events.take();
+    }
+}
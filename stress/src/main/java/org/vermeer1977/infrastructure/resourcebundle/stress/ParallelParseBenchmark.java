@@ -0,0 +1,124 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle.stress;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vermeer1977.infrastructure.resourcebundle.CustomControl;
+import org.vermeer1977.infrastructure.resourcebundle.InMemoryBundleSource;
+
+/**
+ * サイズの大きいpropertiesを逐次解析した場合と並列に解析した場合の所要時間.<br>
+ * 取得元はメモリ上に保持し、解析のみを測定する.並列数は {@link java.util.concurrent.ForkJoinPool#commonPool()} に従う.
+ *
+ * @author Yamashita,Takahiro
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelParseBenchmark {
+
+    private static final String BASE_NAME = "stress.large";
+
+    /**
+     * 生成するpropertiesのエントリ数
+     */
+    @Param({"10000", "100000", "500000"})
+    public int entries;
+
+    private CustomControl sequential;
+
+    private CustomControl parallel;
+
+    private ClassLoader loader;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < this.entries; i++) {
+            if (i % 10 == 0) {
+                sb.append("# section ").append(i).append('\n');
+            }
+            sb.append("message.").append(i).append(".text=メッセージ本文 ").append(i);
+            if (i % 7 == 0) {
+                sb.append(" \\\n    継続した行");
+            }
+            sb.append('\n');
+        }
+        InMemoryBundleSource source = new InMemoryBundleSource(Collections.singletonMap(
+                "stress/large.properties", sb.toString().getBytes(StandardCharsets.UTF_8)));
+        this.sequential = CustomControl.builder()
+                .charCode("UTF-8")
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(source)
+                .build();
+        this.parallel = CustomControl.builder()
+                .charCode("UTF-8")
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .source(source)
+                .parallelParseThreshold(64L * 1024)
+                .build();
+        this.loader = new URLClassLoader(new URL[0], null);
+    }
+
+    /**
+     * {@link java.util.Properties#load(java.io.Reader)}で逐次解析する.
+     *
+     * @return 解析したResourceBundle
+     * @throws Exception 解析時の例外
+     */
+    @Benchmark
+    public ResourceBundle sequential() throws Exception {
+        return this.parse(this.sequential);
+    }
+
+    /**
+     * 論理行の境界で分割して並列に解析する.
+     *
+     * @return 解析したResourceBundle
+     * @throws Exception 解析時の例外
+     */
+    @Benchmark
+    public ResourceBundle parallel() throws Exception {
+        return this.parse(this.parallel);
+    }
+
+    private ResourceBundle parse(CustomControl control)
+            throws IllegalAccessException, InstantiationException, IOException {
+        return control.newBundle(BASE_NAME, Locale.ROOT, "java.properties", this.loader, false);
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle.stress;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vermeer1977.infrastructure.resourcebundle.CustomControl;
+
+/**
+ * サイズの大きいpropertiesを解析した場合とスナップショットから復元した場合の所要時間.<br>
+ * リソース・スナップショットは一時ディレクトリのファイルとし、リソースの取得からResourceBundleの生成までを測定する.
+ *
+ * @author Yamashita,Takahiro
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotBenchmark {
+
+    private static final String BASE_NAME = "stress.large";
+
+    /**
+     * 生成するpropertiesのエントリ数
+     */
+    @Param({"10000", "100000", "500000"})
+    public int entries;
+
+    private CustomControl parse;
+
+    private CustomControl snapshot;
+
+    private ClassLoader loader;
+
+    @Setup
+    public void setUp() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < this.entries; i++) {
+            if (i % 10 == 0) {
+                sb.append("# section ").append(i).append('\n');
+            }
+            sb.append("message.").append(i).append(".text=メッセージ本文 ").append(i);
+            if (i % 7 == 0) {
+                sb.append(" \\\n    継続した行");
+            }
+            sb.append('\n');
+        }
+        Path resources = Files.createTempDirectory("snapshot-resources");
+        Path resource = Files.createDirectories(resources.resolve("stress")).resolve("large.properties");
+        Files.write(resource, sb.toString().getBytes(StandardCharsets.UTF_8));
+        this.loader = new URLClassLoader(new URL[]{resources.toUri().toURL()}, null);
+        this.parse = CustomControl.builder()
+                .charCode("UTF-8")
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .build();
+        this.snapshot = CustomControl.builder()
+                .charCode("UTF-8")
+                .formats(CustomControl.FORMAT_PROPERTIES)
+                .snapshotDirectory(Files.createTempDirectory("snapshot-files"))
+                .build();
+        // 測定前にスナップショットを作成しておく
+        this.load(this.snapshot);
+    }
+
+    /**
+     * リソースを読み込んで解析する.
+     *
+     * @return 解析したResourceBundle
+     * @throws Exception 解析時の例外
+     */
+    @Benchmark
+    public ResourceBundle parse() throws Exception {
+        return this.load(this.parse);
+    }
+
+    /**
+     * スナップショットから復元する.
+     *
+     * @return 復元したResourceBundle
+     * @throws Exception 復元時の例外
+     */
+    @Benchmark
+    public ResourceBundle snapshot() throws Exception {
+        return this.load(this.snapshot);
+    }
+
+    private ResourceBundle load(CustomControl control)
+            throws IllegalAccessException, InstantiationException, IOException {
+        return control.newBundle(BASE_NAME, Locale.ROOT, "java.properties", this.loader, false);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ *  Copyright © 2017 Yamashita,Takahiro
+ */
+package org.vermeer1977.infrastructure.resourcebundle.stress;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import org.openjdk.jcstress.annotations.Actor;
+import org.openjdk.jcstress.annotations.Expect;
+import org.openjdk.jcstress.annotations.JCStressTest;
+import org.openjdk.jcstress.annotations.Outcome;
+import org.openjdk.jcstress.annotations.State;
+import org.openjdk.jcstress.infra.results.LL_Result;
+import org.vermeer1977.infrastructure.resourcebundle.BundleSource;
+import org.vermeer1977.infrastructure.resourcebundle.CustomControl;
+
+/**
+ * 取得元の内容を差し替えながら、有効期限0（取得毎に再ロード）で同時に取得した場合の検証.<br>
+ * 取得結果は差し替え前後のいずれかであり、欠落や例外は発生しない.
+ *
+ * @author Yamashita,Takahiro
+ */
+@JCStressTest
+@Outcome(id = "v2, v1", expect = Expect.ACCEPTABLE, desc = "reader loaded before the update")
+@Outcome(id = "v2, v2", expect = Expect.ACCEPTABLE, desc = "reader loaded after the update")
+@Outcome(id = "v1, .*", expect = Expect.ACCEPTABLE_INTERESTING,
+         desc = "writer got the reader's concurrently cached bundle (ResourceBundle keeps the first bundle put in its cache)")
+@Outcome(expect = Expect.FORBIDDEN, desc = "bundle was missing or broken")
+@State
+public class SourceReloadStress {
+
+    private volatile Map<String, byte[]> resources = resources("v1");
+
+    /* ResourceBundleのキャッシュを状態毎に分けるためのクラスローダー */
+    private final ClassLoader loader = new URLClassLoader(new URL[0], null);
+
+    private final CustomControl control = CustomControl.builder()
+            .charCode("UTF-8")
+            .timeToLive(0L)
+            .source(new BundleSource() {
+                @Override
+                public Map<String, byte[]> fetchAll(String baseName, String suffix) {
+                    return "properties".equals(suffix) ? resources : Collections.<String, byte[]>emptyMap();
+                }
+            })
+            .build();
+
+    @Actor
+    public void writer(LL_Result r) {
+        this.resources = resources("v2");
+        r.r1 = this.read();
+    }
+
+    @Actor
+    public void reader(LL_Result r) {
+        r.r2 = this.read();
+    }
+
+    private String read() {
+        try {
+            return ResourceBundle.getBundle("stress.source", Locale.ROOT, this.loader, this.control).getString("test");
+        }
+        catch (MissingResourceException ex) {
+            return "missing";
+        }
+    }
+
+    private static Map<String, byte[]> resources(String version) {
+        return Collections.singletonMap("stress/source.properties", ("test=" + version).getBytes(StandardCharsets.UTF_8));
+    }
+}